@@ -0,0 +1,166 @@
+package com.group16.uno.benchmark;
+
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.group16.uno.config.WireFormats;
+import com.group16.uno.controller.GameStatePayloads;
+import com.group16.uno.controller.SharedPayloadSender;
+import com.group16.uno.dto.GameEvent;
+import com.group16.uno.game.Cards;
+import com.group16.uno.service.GameStateService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.ByteArrayMessageConverter;
+import org.springframework.messaging.converter.CompositeMessageConverter;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.messaging.converter.StringMessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the broadcast that follows a played card, split into payload construction and
+ * JSON conversion. Messages go through a real SimpMessagingTemplate with the converters the
+ * STOMP broker registers by default, into a channel that drops them, so no network is measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BroadcastBenchmark {
+
+    @Param({"2", "4", "8"})
+    public int seats;
+
+    private GameStateService.MultiplayerGameState gameState;
+    private String playerName;
+    private String card;
+    private GameEvent response;
+    private List<GameStatePayloads.PlayerView> playerResponses;
+    private MessageConverter converter;
+    private SimpMessagingTemplate messagingTemplate;
+    private SharedPayloadSender payloadSender;
+    private SharedPayloadSender cborPayloadSender;
+    private Blackhole sink;
+
+    @Setup
+    public void setup(Blackhole blackhole) {
+        List<String> players = new ArrayList<>();
+        for (int i = 0; i < seats; i++) {
+            players.add("player" + i);
+        }
+        gameState = new GameStateService.MultiplayerGameState(42L);
+        gameState.startGame(players);
+        playerName = gameState.getPlayerOrder().get(0);
+        card = Cards.name(gameState.getTopCard());
+
+        MappingJackson2MessageConverter jackson = new MappingJackson2MessageConverter();
+        // The application's mapper: Boot's defaults plus the Blackbird module from MapperConfig
+        jackson.setObjectMapper(Jackson2ObjectMapperBuilder.json().modulesToInstall(new BlackbirdModule()).build());
+        converter = new CompositeMessageConverter(List.of(
+                new StringMessageConverter(), new ByteArrayMessageConverter(), jackson));
+        sink = blackhole;
+        MessageChannel channel = (message, timeout) -> {
+            sink.consume(message);
+            return true;
+        };
+        messagingTemplate = new SimpMessagingTemplate(channel);
+        messagingTemplate.setMessageConverter(converter);
+        payloadSender = new SharedPayloadSender(messagingTemplate, jackson.getObjectMapper());
+        WireFormats cborEverywhere = new WireFormats();
+        for (String player : players) {
+            cborEverywhere.negotiate(player, player, "cbor", Map.of());
+        }
+        cborPayloadSender = new SharedPayloadSender(messagingTemplate, jackson.getObjectMapper(), cborEverywhere);
+
+        response = GameStatePayloads.cardPlayed("ROOM01", playerName, card, gameState);
+        playerResponses = new ArrayList<>();
+        for (String player : gameState.getPlayerOrder()) {
+            playerResponses.add(GameStatePayloads.forPlayer(response, gameState, player));
+        }
+    }
+
+    // The records built for one move: the room broadcast plus one per seat
+    @Benchmark
+    public void buildPayloads(Blackhole blackhole) {
+        GameEvent roomResponse = GameStatePayloads.cardPlayed("ROOM01", playerName, card, gameState);
+        for (String player : gameState.getPlayerOrder()) {
+            blackhole.consume(GameStatePayloads.forPlayer(roomResponse, gameState, player));
+        }
+        blackhole.consume(roomResponse);
+    }
+
+    // JSON conversion of already built payloads
+    @Benchmark
+    public void serializePayloads(Blackhole blackhole) {
+        MessageHeaders headers = new MessageHeaders(Map.of(MessageHeaders.CONTENT_TYPE, MimeTypeUtils.APPLICATION_JSON));
+        for (GameStatePayloads.PlayerView playerResponse : playerResponses) {
+            Message<?> message = converter.toMessage(playerResponse, headers);
+            blackhole.consume(message);
+        }
+        blackhole.consume(converter.toMessage(response, headers));
+    }
+
+    // The original per-player path: the room response and one copy per player as HashMaps,
+    // rebuilt from the game state and converted on their own, as the controller first did it
+    @Benchmark
+    public void broadcastMove() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("type", "CARD_PLAYED");
+        response.put("player", playerName);
+        response.put("card", card);
+        response.put("gameId", "ROOM01");
+        response.put("currentPlayer", gameState.getCurrentPlayerName());
+        response.put("topCard", Cards.toDto(gameState.getTopCard()).toString());
+        response.put("currentColor", gameState.getCurrentColor());
+        response.put("clockwise", gameState.isClockwise());
+        response.put("drawStack", gameState.getDrawStack());
+        response.put("direction", gameState.isClockwise() ? 1 : -1);
+
+        for (String player : gameState.getPlayerOrder()) {
+            Map<String, Object> playerResponse = new HashMap<>(response);
+            playerResponse.put("playerHand", Cards.toDtoList(gameState.getPlayerHand(player)));
+            playerResponse.put("players", gameState.getPlayerOrder());
+            playerResponse.put("playerIndex", gameState.getPlayerOrder().indexOf(player));
+            Map<String, Integer> handSizes = new HashMap<>();
+            for (String p : gameState.getPlayerOrder()) {
+                handSizes.put(p, gameState.getHandSize(p));
+            }
+            playerResponse.put("handSizes", handSizes);
+            messagingTemplate.convertAndSendToUser(player, "/queue/gameState", playerResponse);
+        }
+        messagingTemplate.convertAndSend("/topic/game/ROOM01", response);
+    }
+
+    // What the controller does after playCard: the public view is encoded once, hands per player
+    @Benchmark
+    public void broadcastMoveShared() {
+        broadcastShared(payloadSender);
+    }
+
+    // The same with every seat on CBOR; the room topic stays JSON
+    @Benchmark
+    public void broadcastMoveCbor() {
+        broadcastShared(cborPayloadSender);
+    }
+
+    private void broadcastShared(SharedPayloadSender sender) {
+        GameEvent roomResponse = GameStatePayloads.cardPlayed("ROOM01", playerName, card, gameState);
+        SharedPayloadSender.Shared publicView = sender.share(GameStatePayloads.publicView(roomResponse, gameState));
+        for (String player : gameState.getPlayerOrder()) {
+            sender.sendToUser(player, "/queue/gameState", publicView, GameStatePayloads.privateView(gameState, player));
+        }
+        sender.send("/topic/game/ROOM01", publicView);
+    }
+}
@@ -0,0 +1,239 @@
+package com.group16.uno.benchmark;
+
+import com.group16.uno.game.Cards;
+import com.group16.uno.game.Hand;
+import com.group16.uno.service.GameStateService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot paths of GameStateService.MultiplayerGameState. Run with the GC profiler
+ * (the jmh profile's default arguments) to get bytes/op next to ns/op.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EngineBenchmark {
+
+    private static final int DRAWS = 100;
+    // Games prepared per iteration for the draw benchmarks, each used by one invocation only
+    private static final int GAMES = 1000;
+
+    @State(Scope.Thread)
+    public static class Seeds {
+        @Param({"2", "3", "4"})
+        public int players;
+
+        List<String> names;
+        long seed;
+
+        @Setup
+        public void setup() {
+            names = new ArrayList<>();
+            for (int i = 0; i < players; i++) {
+                names.add("player" + i);
+            }
+        }
+
+        long next() {
+            return seed++;
+        }
+    }
+
+    // A freshly dealt game, queried without being played
+    @State(Scope.Thread)
+    public static class RunningGame {
+        GameStateService.MultiplayerGameState game;
+        int[] heldCards;
+        int nextCard;
+
+        @Setup
+        public void setup() {
+            game = new GameStateService.MultiplayerGameState(0L);
+            game.startGame(List.of("alice", "bob", "carol", "dave"));
+            heldCards = game.getPlayerHand(game.getCurrentPlayerName()).toArray();
+            nextCard = 0;
+        }
+
+        int nextHeldCard() {
+            int card = heldCards[nextCard];
+            nextCard = (nextCard + 1) % heldCards.length;
+            return card;
+        }
+    }
+
+    // A game whose current player holds a legal card; draws and finished games are handled here, unmeasured
+    @State(Scope.Thread)
+    public static class PlayableTurn {
+        GameStateService.MultiplayerGameState game;
+        String player;
+        int card;
+        String chosenColor;
+        long seed;
+
+        @Setup(Level.Invocation)
+        public void setup() {
+            if (game == null || game.isGameOver()) {
+                game = new GameStateService.MultiplayerGameState(seed++);
+                game.startGame(List.of("alice", "bob", "carol", "dave"));
+            }
+            while (game.legalMoves(game.getCurrentPlayerName()) == 0) {
+                String current = game.getCurrentPlayerName();
+                if (game.getDrawStack() > 0) {
+                    game.handleForcedDraw(current);
+                } else {
+                    game.drawAndEndTurn(current, 1);
+                }
+            }
+            player = game.getCurrentPlayerName();
+            card = Long.numberOfTrailingZeros(game.legalMoves(player));
+            chosenColor = Cards.colorName(game.getPlayerHand(player).hasColor(Cards.RED) ? Cards.RED : Cards.BLUE);
+        }
+    }
+
+    // Fresh decks of 108 cards, so the draws below never reach the discard pile
+    @State(Scope.Thread)
+    public static class FullDecks {
+        GameStateService.MultiplayerGameState[] games = new GameStateService.MultiplayerGameState[GAMES];
+
+        @Setup(Level.Iteration)
+        public void setup() {
+            for (int i = 0; i < GAMES; i++) {
+                games[i] = new GameStateService.MultiplayerGameState(i);
+            }
+        }
+    }
+
+    // Copies of a game in progress whose deck just ran out, so the next drawCard recycles and reshuffles
+    @State(Scope.Thread)
+    public static class EmptyDecks {
+        GameStateService.MultiplayerGameState[] games = new GameStateService.MultiplayerGameState[GAMES];
+        byte[] snapshot;
+
+        @Setup(Level.Trial)
+        public void prepare() throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            playUntilDeckIsEmpty().writeTo(new DataOutputStream(bytes));
+            snapshot = bytes.toByteArray();
+        }
+
+        @Setup(Level.Iteration)
+        public void setup() throws IOException {
+            for (int i = 0; i < GAMES; i++) {
+                games[i] = GameStateService.MultiplayerGameState.readFrom(
+                        new DataInputStream(new ByteArrayInputStream(snapshot)));
+            }
+        }
+    }
+
+    @Benchmark
+    public GameStateService.MultiplayerGameState startGame(Seeds seeds) {
+        GameStateService.MultiplayerGameState game = new GameStateService.MultiplayerGameState(seeds.next());
+        game.startGame(seeds.names);
+        return game;
+    }
+
+    @Benchmark
+    public boolean canPlayCard(RunningGame state) {
+        return state.game.canPlayCard(state.nextHeldCard(), state.game.getCurrentPlayerName());
+    }
+
+    @Benchmark
+    public long legalMoves(RunningGame state) {
+        return state.game.legalMoves(state.game.getCurrentPlayerName());
+    }
+
+    // Playing the lowest legal card alone; the setup before each call takes care of draws
+    @Benchmark
+    public int playCard(PlayableTurn state) {
+        state.game.playCard(state.player, state.card, state.chosenColor);
+        return state.game.getTopCard();
+    }
+
+    // Draws use up the decks, so every iteration is a single pass over freshly prepared games
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 10, batchSize = 1)
+    @Measurement(iterations = 50, batchSize = 1)
+    @OperationsPerInvocation(GAMES * DRAWS)
+    public void drawCard(FullDecks state, Blackhole blackhole) {
+        for (GameStateService.MultiplayerGameState game : state.games) {
+            for (int i = 0; i < DRAWS; i++) {
+                blackhole.consume(game.drawCard());
+            }
+        }
+    }
+
+    // A draw from an empty deck: drawCard recycles the discard pile and reshuffles it first
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 10, batchSize = 1)
+    @Measurement(iterations = 50, batchSize = 1)
+    @OperationsPerInvocation(GAMES)
+    public void drawCardWithReshuffle(EmptyDecks state, Blackhole blackhole) {
+        for (GameStateService.MultiplayerGameState game : state.games) {
+            blackhole.consume(game.drawCard());
+        }
+    }
+
+    // A complete game from the deal to the winner
+    @Benchmark
+    public int playout(Seeds seeds) {
+        GameStateService.MultiplayerGameState game = new GameStateService.MultiplayerGameState(seeds.next());
+        game.startGame(seeds.names);
+        int turns = 0;
+        while (!game.isGameOver() && turns < 5000) {
+            playTurn(game);
+            turns++;
+        }
+        return turns;
+    }
+
+    // Plays without letting anyone go out until the deck is empty and the discard pile has grown
+    private static GameStateService.MultiplayerGameState playUntilDeckIsEmpty() {
+        GameStateService.MultiplayerGameState game = new GameStateService.MultiplayerGameState(1L);
+        game.startGame(List.of("alice", "bob", "carol", "dave"));
+        for (int turn = 0; game.getDeckSize() > 0; turn++) {
+            if (turn > 10_000) {
+                throw new IllegalStateException("Deck did not run out");
+            }
+            String player = game.getCurrentPlayerName();
+            if (game.getHandSize(player) > 2 && game.legalMoves(player) != 0) {
+                playTurn(game);
+            } else if (game.getDrawStack() > 0) {
+                game.handleForcedDraw(player);
+            } else {
+                game.drawAndEndTurn(player, 1);
+            }
+        }
+        if (game.getDiscardPileSize() < 2) {
+            throw new IllegalStateException("Nothing to recycle from the discard pile");
+        }
+        return game;
+    }
+
+    private static void playTurn(GameStateService.MultiplayerGameState game) {
+        String player = game.getCurrentPlayerName();
+        long moves = game.legalMoves(player);
+        if (moves != 0) {
+            Hand hand = game.getPlayerHand(player);
+            int color = hand.hasColor(Cards.RED) ? Cards.RED : Cards.BLUE;
+            game.playCard(player, Long.numberOfTrailingZeros(moves), Cards.colorName(color));
+        } else if (game.getDrawStack() > 0) {
+            game.handleForcedDraw(player);
+        } else {
+            game.drawAndEndTurn(player, 1);
+        }
+    }
+}
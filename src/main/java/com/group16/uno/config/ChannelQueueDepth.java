@@ -0,0 +1,37 @@
+package com.group16.uno.config;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.support.AbstractSubscribableChannel;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts messages a broker channel has accepted but not yet started handling. An executor
+ * channel hands each message to every subscriber as a separate task, so a send adds one
+ * per subscriber and each task removes one when it starts.
+ */
+public class ChannelQueueDepth implements ExecutorChannelInterceptor {
+
+    private final AtomicInteger depth = new AtomicInteger();
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        if (channel instanceof AbstractSubscribableChannel subscribable) {
+            depth.addAndGet(subscribable.getSubscribers().size());
+        }
+        return message;
+    }
+
+    @Override
+    public Message<?> beforeHandle(Message<?> message, MessageChannel channel, MessageHandler handler) {
+        depth.decrementAndGet();
+        return message;
+    }
+
+    public int get() {
+        return depth.get();
+    }
+}
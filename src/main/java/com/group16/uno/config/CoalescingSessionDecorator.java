@@ -0,0 +1,216 @@
+package com.group16.uno.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.SessionLimitExceededException;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.Executor;
+
+/**
+ * Bounded outbound buffer for one WebSocket session that drops superseded game state.
+ *
+ * Frames are queued and written by a send thread, so the broker never waits on a slow
+ * client. While frames are waiting, a new full-state frame (STOMP header {@code state:full})
+ * replaces every queued state frame ({@code state:full} or {@code state:delta}) for the
+ * same destination: it already contains everything they carry. Other frames are never
+ * dropped. A session whose queue still exceeds the buffer size limit, or whose current
+ * write has taken longer than the send time limit, is closed by throwing
+ * SessionLimitExceededException, like Spring's own ConcurrentWebSocketSessionDecorator.
+ * A write that hangs while nothing else is sent is caught by CoalescingWebSocketHandler's
+ * periodic check instead.
+ */
+public class CoalescingSessionDecorator extends WebSocketSessionDecorator {
+
+    private static final Logger log = LoggerFactory.getLogger(CoalescingSessionDecorator.class);
+
+    public static final String STATE_HEADER = "state";
+    public static final String FULL_STATE = "full";
+    public static final String DELTA_STATE = "delta";
+
+    private final int sendTimeLimit;
+    private final int bufferSizeLimit;
+    private final Executor sendExecutor;
+
+    private final Deque<Frame> queue = new ArrayDeque<>();
+    private int bufferSize;
+    private boolean sending;
+    private volatile long sendStartTime;
+    private volatile boolean limitExceeded;
+
+    private record Frame(WebSocketMessage<?> message, String destination, String state, int size) {
+    }
+
+    public CoalescingSessionDecorator(WebSocketSession delegate, int sendTimeLimit, int bufferSizeLimit,
+                                      Executor sendExecutor) {
+        super(delegate);
+        this.sendTimeLimit = sendTimeLimit;
+        this.bufferSizeLimit = bufferSizeLimit;
+        this.sendExecutor = sendExecutor;
+    }
+
+    @Override
+    public void sendMessage(WebSocketMessage<?> message) throws IOException {
+        if (limitExceeded || !isOpen()) {
+            return;
+        }
+        Frame frame = parse(message);
+        boolean startSending;
+        synchronized (queue) {
+            if (FULL_STATE.equals(frame.state())) {
+                coalesce(frame.destination());
+            }
+            queue.add(frame);
+            bufferSize += frame.size();
+            checkLimits();
+            startSending = !sending;
+            sending = true;
+        }
+        if (startSending) {
+            sendExecutor.execute(this::drain);
+        }
+    }
+
+    // Number of frames waiting to be written
+    public int getBufferedFrameCount() {
+        synchronized (queue) {
+            return queue.size();
+        }
+    }
+
+    /**
+     * Closes the session if its current write has taken longer than the send time limit.
+     * Returns true if the session is closed for good, so callers can stop tracking it.
+     */
+    boolean evictIfSendTimeExceeded() {
+        long start = sendStartTime;
+        if (start > 0 && System.currentTimeMillis() - start > sendTimeLimit) {
+            log.info("Closing WebSocket session {}: send time exceeded the limit {} (ms)", getId(), sendTimeLimit);
+            synchronized (queue) {
+                limitExceeded = true;
+                queue.clear();
+                bufferSize = 0;
+            }
+            closeQuietly();
+        }
+        return limitExceeded || !isOpen();
+    }
+
+    private void coalesce(String destination) {
+        for (Iterator<Frame> it = queue.iterator(); it.hasNext(); ) {
+            Frame queued = it.next();
+            if (queued.state() != null && queued.destination().equals(destination)) {
+                it.remove();
+                bufferSize -= queued.size();
+            }
+        }
+    }
+
+    private void checkLimits() {
+        String reason = null;
+        long start = sendStartTime;
+        if (start > 0 && System.currentTimeMillis() - start > sendTimeLimit) {
+            reason = "Send time " + (System.currentTimeMillis() - start) + " (ms) exceeded the limit " + sendTimeLimit;
+        } else if (bufferSize > bufferSizeLimit) {
+            reason = "Buffer size " + bufferSize + " bytes exceeded the limit " + bufferSizeLimit;
+        }
+        if (reason != null) {
+            limitExceeded = true;
+            queue.clear();
+            bufferSize = 0;
+            throw new SessionLimitExceededException(reason + " for session " + getId(), CloseStatus.SESSION_NOT_RELIABLE);
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            Frame frame;
+            synchronized (queue) {
+                frame = limitExceeded ? null : queue.poll();
+                if (frame == null) {
+                    sending = false;
+                    return;
+                }
+                bufferSize -= frame.size();
+            }
+            sendStartTime = System.currentTimeMillis();
+            try {
+                getDelegate().sendMessage(frame.message());
+            } catch (Exception e) {
+                log.info("Closing WebSocket session {} after failed send: {}", getId(), e.getMessage());
+                synchronized (queue) {
+                    limitExceeded = true;
+                    queue.clear();
+                    bufferSize = 0;
+                }
+                closeQuietly();
+            } finally {
+                sendStartTime = 0;
+            }
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            getDelegate().close(CloseStatus.SESSION_NOT_RELIABLE);
+        } catch (Exception ignored) {
+            // Already closed
+        }
+    }
+
+    // Reads destination and state from the STOMP header block; other frames have neither
+    static Frame parse(WebSocketMessage<?> message) {
+        String headers = headerBlock(message);
+        String destination = null;
+        String state = null;
+        if (headers != null && headers.startsWith("MESSAGE\n")) {
+            int pos = headers.indexOf('\n') + 1;
+            while (pos < headers.length()) {
+                int end = headers.indexOf('\n', pos);
+                if (end < 0) {
+                    end = headers.length();
+                }
+                String line = headers.substring(pos, end);
+                // The first occurrence of a repeated header wins
+                if (destination == null && line.startsWith("destination:")) {
+                    destination = line.substring("destination:".length());
+                } else if (state == null && line.startsWith(STATE_HEADER + ":")) {
+                    state = line.substring(STATE_HEADER.length() + 1);
+                }
+                pos = end + 1;
+            }
+        }
+        return new Frame(message, destination, destination != null ? state : null, message.getPayloadLength());
+    }
+
+    private static String headerBlock(WebSocketMessage<?> message) {
+        if (message instanceof TextMessage text) {
+            String payload = text.getPayload();
+            int end = payload.indexOf("\n\n");
+            return end < 0 ? null : payload.substring(0, end);
+        }
+        if (message instanceof BinaryMessage binary) {
+            ByteBuffer payload = binary.getPayload();
+            int start = payload.position();
+            for (int i = start; i + 1 < payload.limit(); i++) {
+                if (payload.get(i) == '\n' && payload.get(i + 1) == '\n') {
+                    byte[] bytes = new byte[i - start];
+                    payload.duplicate().get(bytes);
+                    return new String(bytes, StandardCharsets.US_ASCII);
+                }
+            }
+        }
+        return null;
+    }
+}
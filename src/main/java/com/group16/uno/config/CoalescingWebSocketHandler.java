@@ -0,0 +1,47 @@
+package com.group16.uno.config;
+
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.SubscribableChannel;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.messaging.SubProtocolWebSocketHandler;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Spring's STOMP WebSocket handler with a CoalescingSessionDecorator as the only outbound
+ * buffer of each session, in place of the ConcurrentWebSocketSessionDecorator it adds
+ * otherwise. Sessions take the send time and buffer size limits of the transport registration.
+ */
+public class CoalescingWebSocketHandler extends SubProtocolWebSocketHandler {
+
+    private final Executor sendExecutor;
+    private final Map<String, CoalescingSessionDecorator> sessions = new ConcurrentHashMap<>();
+
+    public CoalescingWebSocketHandler(MessageChannel clientInboundChannel, SubscribableChannel clientOutboundChannel,
+                                      Executor sendExecutor) {
+        super(clientInboundChannel, clientOutboundChannel);
+        this.sendExecutor = sendExecutor;
+    }
+
+    @Override
+    protected WebSocketSession decorateSession(WebSocketSession session) {
+        CoalescingSessionDecorator decorated =
+                new CoalescingSessionDecorator(session, getSendTimeLimit(), getSendBufferSizeLimit(), sendExecutor);
+        sessions.put(session.getId(), decorated);
+        return decorated;
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+        sessions.remove(session.getId());
+        super.afterConnectionClosed(session, closeStatus);
+    }
+
+    // Closes sessions whose current write has passed the send time limit; meant to run periodically
+    public void evictStalledSessions() {
+        sessions.values().removeIf(CoalescingSessionDecorator::evictIfSendTimeExceeded);
+    }
+}
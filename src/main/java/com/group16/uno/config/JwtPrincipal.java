@@ -0,0 +1,15 @@
+package com.group16.uno.config;
+
+import org.springframework.security.core.AuthenticatedPrincipal;
+
+/**
+ * The authenticated user as read from a verified token. Built from the token's claims
+ * alone, so authenticating a request does not load the user from the database.
+ */
+public record JwtPrincipal(String id, String username) implements AuthenticatedPrincipal {
+
+    @Override
+    public String getName() {
+        return username;
+    }
+}
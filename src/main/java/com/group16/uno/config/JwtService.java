@@ -3,67 +3,207 @@ package com.group16.uno.config;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import jakarta.annotation.PostConstruct;
+import com.group16.uno.model.User;
+import com.group16.uno.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
 import java.util.Date;
 import java.util.Base64;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class JwtService {
 
+    static final String USER_ID_CLAIM = "uid";
+    static final String AUTHORITIES_CLAIM = "authorities";
+
     @Value("${jwt.secret}")
     private String secret;
 
     @Value("${jwt.expiration}")
     private long expirationMs;
 
+    @Value("${jwt.cache-size:10000}")
+    private int cacheSize;
+
     private Key signingKey;
+    private JwtParser parser;
+
+    // Latency of authenticate, by whether the token was accepted
+    private final Timer validTokens;
+    private final Timer invalidTokens;
+
+    // Verified tokens by SHA-256 of the token, dropped once the token expires
+    private final Map<ByteBuffer, VerifiedToken> verified = new ConcurrentHashMap<>();
+
+    private record VerifiedToken(Claims claims, long expiresAt) {
+    }
+
+    // Last password change in epoch millis by username, 0 if never changed; loaded once per user
+    private final Map<String, Long> passwordChanges = new ConcurrentHashMap<>();
+
+    private final UserRepository userRepository;
+
+    public JwtService(MeterRegistry meterRegistry, UserRepository userRepository) {
+        this.userRepository = userRepository;
+        this.validTokens = validationTimer(meterRegistry, "valid");
+        this.invalidTokens = validationTimer(meterRegistry, "invalid");
+    }
+
+    private static Timer validationTimer(MeterRegistry meterRegistry, String result) {
+        return Timer.builder("uno.jwt.validation")
+                .tag("result", result)
+                .description("Time to verify a JWT and build the authentication from it")
+                .register(meterRegistry);
+    }
 
     @PostConstruct
     public void init() {
         byte[] decodedKey = Base64.getDecoder().decode(secret);
         this.signingKey = Keys.hmacShaKeyFor(decodedKey);
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
     }
 
-    public String generateToken(String username) {
-        return Jwts.builder()
-                .setSubject(username)
+    // The token carries everything authenticate needs: username, user id and authorities
+    public String generateToken(User user) {
+        JwtBuilder builder = Jwts.builder()
+                .setSubject(user.getUsername())
+                .claim(USER_ID_CLAIM, user.getId())
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + expirationMs))
-                .signWith(signingKey, SignatureAlgorithm.HS256)
-                .compact();
+                .signWith(signingKey, SignatureAlgorithm.HS256);
+        List<String> authorities = AuthorityUtils.authorityListToSet(user.getAuthorities()).stream().sorted().toList();
+        if (!authorities.isEmpty()) {
+            builder.claim(AUTHORITIES_CLAIM, authorities);
+        }
+        return builder.compact();
     }
 
-    public String extractUsername(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(signingKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+    /**
+     * Verifies the token and builds the authentication from its claims, with a JwtPrincipal
+     * as principal. Tokens issued before the user's last password change are rejected; that
+     * time is read from the repository on the user's first request and kept in memory after.
+     *
+     * @throws JwtException if the token is invalid, expired or revoked
+     */
+    public UsernamePasswordAuthenticationToken authenticate(String token) {
+        long start = System.nanoTime();
+        try {
+            UsernamePasswordAuthenticationToken authentication = authenticateClaims(parseClaims(token));
+            validTokens.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return authentication;
+        } catch (JwtException e) {
+            invalidTokens.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
     }
 
-    private Date extractExpiration(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(signingKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getExpiration();
+    private UsernamePasswordAuthenticationToken authenticateClaims(Claims claims) {
+        String username = claims.getSubject();
+        if (username == null) {
+            throw new MalformedJwtException("Token has no subject");
+        }
+        checkNotRevoked(username, claims.getIssuedAt());
+        List<?> authorities = claims.get(AUTHORITIES_CLAIM, List.class);
+        List<GrantedAuthority> grantedAuthorities = authorities == null
+                ? AuthorityUtils.NO_AUTHORITIES
+                : AuthorityUtils.createAuthorityList(authorities.stream().map(String::valueOf).toList());
+        JwtPrincipal principal = new JwtPrincipal(claims.get(USER_ID_CLAIM, String.class), username);
+        return new UsernamePasswordAuthenticationToken(principal, null, grantedAuthorities);
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    /**
+     * Rejects tokens of unknown users and tokens issued before the user's last password change.
+     * Tokens only record whole seconds, so ones issued earlier in the second of the change stay valid.
+     */
+    private void checkNotRevoked(String username, Date issuedAt) {
+        Long changedAt = passwordChanges.get(username);
+        if (changedAt == null) {
+            User user = userRepository.findByUsername(username)
+                    .orElseThrow(() -> new JwtException("Token user no longer exists"));
+            Instant passwordChangedAt = user.getPasswordChangedAt();
+            // A change recorded while the user was loaded wins over the value read
+            Long previous = passwordChanges.putIfAbsent(username, passwordChangedAt == null ? 0L : passwordChangedAt.toEpochMilli());
+            changedAt = previous != null ? previous : passwordChanges.get(username);
+        }
+        if (changedAt > 0 && (issuedAt == null || issuedAt.getTime() < changedAt / 1000 * 1000)) {
+            throw new JwtException("Token has been revoked");
+        }
     }
 
-    public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return username.equals(userDetails.getUsername()) && !isTokenExpired(token);
+    /**
+     * Records a password change so tokens the user was issued before it are rejected from now on.
+     */
+    public void passwordChanged(String username, Instant changedAt) {
+        passwordChanges.put(username, changedAt.toEpochMilli());
+    }
+
+    /**
+     * Verifies the token once and returns all of its claims. A token seen before is served
+     * from the cache without parsing or checking the signature again, until it expires.
+     * The returned claims are shared and must not be modified.
+     *
+     * @throws JwtException if the token is malformed, wrongly signed or expired
+     */
+    public Claims parseClaims(String token) {
+        ByteBuffer key = digest(token);
+        VerifiedToken cached = verified.get(key);
+        long now = System.currentTimeMillis();
+        if (cached != null) {
+            if (now < cached.expiresAt()) {
+                return cached.claims();
+            }
+            verified.remove(key);
+        }
+        // Throws ExpiredJwtException for an expired token
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        Date expiration = claims.getExpiration();
+        if (expiration != null && cacheSize > 0) {
+            if (verified.size() >= cacheSize) {
+                evict(now);
+            }
+            verified.put(key, new VerifiedToken(claims, expiration.getTime()));
+        }
+        return claims;
     }
-}
 
+    public String extractUsername(String token) {
+        return parseClaims(token).getSubject();
+    }
 
+    // Drops expired tokens; if the cache is still full, drops entries until a tenth is free
+    private void evict(long now) {
+        verified.values().removeIf(token -> token.expiresAt() <= now);
+        Iterator<ByteBuffer> keys = verified.keySet().iterator();
+        while (verified.size() >= cacheSize * 9 / 10 && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
 
+    private static ByteBuffer digest(String token) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
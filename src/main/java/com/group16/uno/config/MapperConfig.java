@@ -1,5 +1,7 @@
 package com.group16.uno.config;
 
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
 import org.modelmapper.ModelMapper;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -10,4 +12,10 @@ public class MapperConfig {
     public ModelMapper modelMapper() {
         return new ModelMapper();
     }
+
+    // Generated accessors instead of reflection for record components and getters
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
 }
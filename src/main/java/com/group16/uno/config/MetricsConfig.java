@@ -0,0 +1,29 @@
+package com.group16.uno.config;
+
+import com.group16.uno.service.GameRoomService;
+import com.group16.uno.service.GameStateService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Game gauges, exported with the rest of the metrics at /actuator/prometheus.
+ * Command and JWT timers are registered where they are recorded; broker queue depths
+ * in WebSocketConfig.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder gameMetrics(GameRoomService gameRoomService, GameStateService gameStateService) {
+        return registry -> {
+            Gauge.builder("uno.rooms.live", gameRoomService, GameRoomService::getRoomCount)
+                    .description("Open game rooms")
+                    .register(registry);
+            Gauge.builder("uno.games.live", gameStateService, GameStateService::getGameCount)
+                    .description("Games with state in memory")
+                    .register(registry);
+        };
+    }
+}
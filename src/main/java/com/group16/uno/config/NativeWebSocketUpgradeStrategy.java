@@ -0,0 +1,54 @@
+package com.group16.uno.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.websocket.server.ServerEndpointConfig;
+import org.springframework.web.socket.server.standard.StandardWebSocketUpgradeStrategy;
+
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Map;
+
+/**
+ * Upgrade strategy for the native (non-SockJS) STOMP endpoint. Tomcat negotiates
+ * permessage-deflate on its own whenever the client offers it, so when compression is
+ * turned off the client's extension offer is hidden from the upgrade.
+ */
+public class NativeWebSocketUpgradeStrategy extends StandardWebSocketUpgradeStrategy {
+
+    static final String EXTENSIONS_HEADER = "Sec-WebSocket-Extensions";
+
+    private final boolean compression;
+
+    public NativeWebSocketUpgradeStrategy(boolean compression) {
+        this.compression = compression;
+    }
+
+    @Override
+    protected void upgradeHttpToWebSocket(HttpServletRequest request, HttpServletResponse response,
+                                          ServerEndpointConfig endpointConfig, Map<String, String> pathParams) throws Exception {
+        super.upgradeHttpToWebSocket(compression ? request : withoutExtensions(request), response, endpointConfig, pathParams);
+    }
+
+    static HttpServletRequest withoutExtensions(HttpServletRequest request) {
+        return new HttpServletRequestWrapper(request) {
+            @Override
+            public String getHeader(String name) {
+                return EXTENSIONS_HEADER.equalsIgnoreCase(name) ? null : super.getHeader(name);
+            }
+
+            @Override
+            public Enumeration<String> getHeaders(String name) {
+                return EXTENSIONS_HEADER.equalsIgnoreCase(name) ? Collections.emptyEnumeration() : super.getHeaders(name);
+            }
+
+            @Override
+            public Enumeration<String> getHeaderNames() {
+                return Collections.enumeration(Collections.list(super.getHeaderNames()).stream()
+                        .filter(name -> !EXTENSIONS_HEADER.equalsIgnoreCase(name))
+                        .toList());
+            }
+        };
+    }
+}
@@ -0,0 +1,65 @@
+package com.group16.uno.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.support.AbstractSubscribableChannel;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.config.annotation.DelegatingWebSocketMessageBrokerConfiguration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spring's STOMP broker configuration, in place of @EnableWebSocketMessageBroker, so the
+ * WebSocket handler can be a CoalescingWebSocketHandler. WebSocketConfig still configures
+ * the broker, endpoints and transport limits.
+ */
+@Configuration
+public class WebSocketBrokerConfig extends DelegatingWebSocketMessageBrokerConfiguration {
+
+    @Value("${websocket.send-time-limit-ms:10000}")
+    private int sendTimeLimit;
+
+    @Value("${websocket.send-threads:32}")
+    private int sendThreads;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Bean
+    @Override
+    public WebSocketHandler subProtocolWebSocketHandler(AbstractSubscribableChannel clientInboundChannel,
+                                                        AbstractSubscribableChannel clientOutboundChannel) {
+        CoalescingWebSocketHandler handler =
+                new CoalescingWebSocketHandler(clientInboundChannel, clientOutboundChannel, webSocketSendExecutor());
+        handler.setPhase(getPhase());
+        // Checked twice per limit, for writes that hang while nothing else is sent to the session
+        long checkInterval = Math.max(1, sendTimeLimit / 2);
+        webSocketSendWatchdog().scheduleWithFixedDelay(handler::evictStalledSessions,
+                checkInterval, checkInterval, TimeUnit.MILLISECONDS);
+        return handler;
+    }
+
+    // At most sendThreads writes run at once on platform threads; with virtual threads every write gets its own
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService webSocketSendExecutor() {
+        return virtualThreads
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("ws-send-", 0).factory())
+                : Executors.newFixedThreadPool(sendThreads, threadFactory("ws-send-"));
+    }
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ScheduledExecutorService webSocketSendWatchdog() {
+        return Executors.newSingleThreadScheduledExecutor(threadFactory("ws-send-watchdog-"));
+    }
+
+    private static CustomizableThreadFactory threadFactory(String prefix) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(prefix);
+        threadFactory.setDaemon(true);
+        return threadFactory;
+    }
+}
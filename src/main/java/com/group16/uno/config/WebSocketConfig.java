@@ -1,45 +1,125 @@
 package com.group16.uno.config;
 
 import com.group16.uno.config.JwtService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
 import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.config.SimpleBrokerRegistration;
 import org.springframework.messaging.simp.stomp.StompCommand;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.messaging.support.ChannelInterceptor;
 import org.springframework.messaging.support.MessageHeaderAccessor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.socket.server.support.DefaultHandshakeHandler;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
+import java.util.Map;
+
+// The broker itself is set up by WebSocketBrokerConfig, which applies this configuration
 @Configuration
-@EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private static final Logger log = LoggerFactory.getLogger(WebSocketConfig.class);
+
     @Autowired
     private JwtService jwtService;
 
     @Autowired
-    private UserDetailsService userDetailsService;
+    private WireFormats wireFormats;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Lazy, as Spring's docs advise for broker schedulers: the broker is configured before this bean exists
+    @Lazy
+    @Autowired
+    @Qualifier("heartbeatTaskScheduler")
+    private TaskScheduler heartbeatTaskScheduler;
+
+    private final ChannelQueueDepth inboundQueueDepth = new ChannelQueueDepth();
+    private final ChannelQueueDepth outboundQueueDepth = new ChannelQueueDepth();
+
+    @Value("${websocket.send-time-limit-ms:10000}")
+    private int sendTimeLimit;
+
+    @Value("${websocket.send-buffer-size-limit:524288}")
+    private int sendBufferSizeLimit;
+
+    @Value("${websocket.native.compression:true}")
+    private boolean nativeCompression;
+
+    @Value("${websocket.heartbeat-ms:10000}")
+    private long heartbeat;
 
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/topic", "/queue"); // for broadcasting to clients and individual messages
+        SimpleBrokerRegistration broker = config.enableSimpleBroker("/topic", "/queue"); // for broadcasting to clients and individual messages
+        if (heartbeat > 0) {
+            // Native WebSocket clients have no SockJS heartbeats, so the broker sends STOMP ones
+            broker.setHeartbeatValue(new long[] {heartbeat, heartbeat}).setTaskScheduler(heartbeatTaskScheduler);
+        }
         config.setApplicationDestinationPrefixes("/app"); // for receiving from clients
         config.setUserDestinationPrefix("/user"); // for user-specific messages
     }
 
+    // A bean, so the context initializes it and shuts it down with the broker
+    @Bean
+    public ThreadPoolTaskScheduler heartbeatTaskScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix("ws-heartbeat-");
+        return scheduler;
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // Applied to each session's CoalescingSessionDecorator, the only outbound buffer
+        registration.setSendTimeLimit(sendTimeLimit);
+        registration.setSendBufferSizeLimit(sendBufferSizeLimit);
+    }
+
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
-        registry.addEndpoint("/uno-websocket").setAllowedOriginPatterns("*").withSockJS();
+        registry.addEndpoint("/uno-websocket").setAllowedOriginPatterns("*")
+                .addInterceptors(new HandshakeInterceptor() {
+                    // Marks the session as SockJS, which cannot carry binary frames
+                    @Override
+                    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                                   WebSocketHandler wsHandler, Map<String, Object> attributes) {
+                        attributes.put(WireFormats.SOCKJS_ATTRIBUTE, true);
+                        return true;
+                    }
+
+                    @Override
+                    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                               WebSocketHandler wsHandler, Exception exception) {
+                    }
+                })
+                .withSockJS();
+        // The same STOMP endpoint over plain WebSocket, for clients that do not need SockJS
+        registry.addEndpoint("/uno-websocket-native").setAllowedOriginPatterns("*")
+                .setHandshakeHandler(new DefaultHandshakeHandler(new NativeWebSocketUpgradeStrategy(nativeCompression)));
     }
 
     @Override
@@ -50,62 +130,64 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
                 
                 if (StompCommand.CONNECT.equals(accessor.getCommand())) {
-                    System.out.println("WebSocket CONNECT request received");
-                    
-
                     String jwt = null;
                     
 
                     final String authHeader = accessor.getFirstNativeHeader("Authorization");
-                    System.out.println("Native Authorization header: " + (authHeader != null ? "Present" : "NULL"));
                     
                     if (authHeader != null && authHeader.startsWith("Bearer ")) {
                         jwt = authHeader.substring(7);
-                        System.out.println("JWT found in native Authorization header");
                     } else {
 
                         StompHeaders stompHeaders = StompHeaders.readOnlyStompHeaders(accessor.toNativeHeaderMap());
                         String stompAuthHeader = stompHeaders.getFirst("Authorization");
-                        System.out.println("STOMP Authorization header: " + (stompAuthHeader != null ? "Present" : "NULL"));
                         
                         if (stompAuthHeader != null && stompAuthHeader.startsWith("Bearer ")) {
                             jwt = stompAuthHeader.substring(7);
-                            System.out.println("JWT found in STOMP Authorization header");
                         }
                     }
 
                     if (jwt == null || jwt.trim().isEmpty()) {
-                        System.out.println("No JWT token found in any headers");
+                        log.debug("connect rejected session={} reason=\"no token\"", accessor.getSessionId());
                         throw new RuntimeException("No JWT token found");
                     }
                     
-                    System.out.println("Extracted JWT: " + jwt.substring(0, Math.min(20, jwt.length())) + "...");
-                    
-                    final String username = jwtService.extractUsername(jwt);
-                    System.out.println("Extracted username: " + username);
+                    // The principal comes from the verified claims, without a user lookup
+                    final UsernamePasswordAuthenticationToken token = jwtService.authenticate(jwt);
+                    final String username = token.getName();
 
-                    if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                        System.out.println("User details loaded for: " + userDetails.getUsername());
-                        
-                        if (jwtService.isTokenValid(jwt, userDetails)) {
-                            UsernamePasswordAuthenticationToken token =
-                                    new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-                            accessor.setUser(token);
-                            SecurityContextHolder.getContext().setAuthentication(token);
-                            System.out.println("WebSocket JWT authentication successful for user: " + username);
-                        } else {
-                            System.out.println("JWT token is invalid for user: " + username);
-                            throw new RuntimeException("Invalid JWT token");
-                        }
+                    if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                        accessor.setUser(token);
+                        SecurityContextHolder.getContext().setAuthentication(token);
+                        WireFormats.WireFormat format = wireFormats.negotiate(username, accessor.getSessionId(),
+                                accessor.getFirstNativeHeader(WireFormats.ACCEPT_FORMAT_HEADER),
+                                accessor.getSessionAttributes());
+                        log.debug("connect session={} user={} format={}", accessor.getSessionId(), username, format);
                     } else {
-                        System.out.println("Invalid username (" + username + ") or already authenticated");
+                        log.debug("connect rejected session={} user={} reason=\"already authenticated\"",
+                                accessor.getSessionId(), username);
                         throw new RuntimeException("Invalid username or already authenticated");
                     }
+                } else if (StompCommand.DISCONNECT.equals(accessor.getCommand())) {
+                    wireFormats.disconnect(accessor.getSessionId());
                 }
                 
                 return message;
             }
-        });
+        }, queueDepth(inboundQueueDepth, "inbound"));
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.interceptors(queueDepth(outboundQueueDepth, "outbound"));
+    }
+
+    // Registered last on its channel, so messages rejected by an earlier interceptor are not counted
+    private ChannelQueueDepth queueDepth(ChannelQueueDepth depth, String channel) {
+        Gauge.builder("uno.broker.queue.depth", depth, ChannelQueueDepth::get)
+                .tag("channel", channel)
+                .description("STOMP messages waiting for a broker thread")
+                .register(meterRegistry);
+        return depth;
     }
 } 
\ No newline at end of file
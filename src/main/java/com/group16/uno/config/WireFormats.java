@@ -0,0 +1,94 @@
+package com.group16.uno.config;
+
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The encoding each player receives their STOMP messages in, negotiated on CONNECT.
+ *
+ * A client asks for CBOR with the native header {@code accept-format: cbor}; anything else,
+ * or no header, keeps JSON. CBOR goes out as binary WebSocket frames with content-type
+ * application/octet-stream (the only type Spring sends as a binary frame), so a client
+ * tells the formats apart per frame. SockJS only carries text, so SockJS sessions always
+ * get JSON. The format belongs to the STOMP session: a player with a CBOR session and a
+ * JSON session (e.g. a SockJS tab) gets each message once per session, in that session's format.
+ */
+@Component
+public class WireFormats {
+
+    public static final String ACCEPT_FORMAT_HEADER = "accept-format";
+
+    // Session attribute set during the SockJS handshake
+    public static final String SOCKJS_ATTRIBUTE = "uno.sockjs";
+
+    public enum WireFormat {
+        JSON(MimeTypeUtils.APPLICATION_JSON),
+        CBOR(MimeTypeUtils.APPLICATION_OCTET_STREAM);
+
+        private final MimeType contentType;
+
+        WireFormat(MimeType contentType) {
+            this.contentType = contentType;
+        }
+
+        public MimeType getContentType() {
+            return contentType;
+        }
+    }
+
+    // Each user's open sessions and the format each one negotiated
+    private final Map<String, Map<String, WireFormat>> userSessions = new ConcurrentHashMap<>();
+    private final Map<String, String> sessionUsers = new ConcurrentHashMap<>();
+
+    /**
+     * Records the format for the user's new session and returns it. CBOR is only granted
+     * when asked for and the session can carry binary frames.
+     */
+    public WireFormat negotiate(String user, String sessionId, String acceptFormat, Map<String, Object> sessionAttributes) {
+        boolean sockJs = sessionAttributes != null && Boolean.TRUE.equals(sessionAttributes.get(SOCKJS_ATTRIBUTE));
+        WireFormat format = !sockJs && "cbor".equalsIgnoreCase(acceptFormat) ? WireFormat.CBOR : WireFormat.JSON;
+        if (sessionId != null) {
+            sessionUsers.put(sessionId, user);
+            userSessions.compute(user, (u, sessions) -> {
+                Map<String, WireFormat> updated = sessions != null ? sessions : new ConcurrentHashMap<>();
+                updated.put(sessionId, format);
+                return updated;
+            });
+        }
+        return format;
+    }
+
+    public void disconnect(String sessionId) {
+        String user = sessionId != null ? sessionUsers.remove(sessionId) : null;
+        if (user != null) {
+            userSessions.computeIfPresent(user, (u, sessions) -> {
+                sessions.remove(sessionId);
+                return sessions.isEmpty() ? null : sessions;
+            });
+        }
+    }
+
+    public WireFormat formatOf(String sessionId) {
+        String user = sessionId != null ? sessionUsers.get(sessionId) : null;
+        Map<String, WireFormat> sessions = user != null ? userSessions.get(user) : null;
+        WireFormat format = sessions != null ? sessions.get(sessionId) : null;
+        return format != null ? format : WireFormat.JSON;
+    }
+
+    /**
+     * The user's sessions by id with their formats, when at least one of them uses CBOR.
+     * Empty when every session takes JSON, so the message can go to the user as a whole.
+     */
+    public Map<String, WireFormat> sessionFormats(String user) {
+        Map<String, WireFormat> sessions = userSessions.get(user);
+        if (sessions == null || !sessions.containsValue(WireFormat.CBOR)) {
+            return Map.of();
+        }
+        return Collections.unmodifiableMap(sessions);
+    }
+}
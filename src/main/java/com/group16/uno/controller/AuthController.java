@@ -104,7 +104,7 @@ public class AuthController {
         }
 
         User user = userService.getUserByUsername(username).get();
-        String jwt = jwtService.generateToken(user.getUsername());
+        String jwt = jwtService.generateToken(user);
 
         UserDto userDto = modelMapper.map(user, UserDto.class);
         LoginResponseDto response = new LoginResponseDto(jwt, userDto);
@@ -0,0 +1,66 @@
+package com.group16.uno.controller;
+
+import com.group16.uno.game.Cards;
+import com.group16.uno.service.GameStateService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Game events on the "uno.game" logger as key=value lines. Starts and ends of games are
+ * logged at INFO. Moves and rejected commands are logged at DEBUG, and only for a sample
+ * of rooms: a room is either sampled for its whole life or not at all, picked from its id.
+ * The level can be changed while running (see README), and logback writes asynchronously,
+ * so a move never waits on the console.
+ */
+final class GameLog {
+
+    private static final Logger log = LoggerFactory.getLogger("uno.game");
+    private static final int SAMPLE_BUCKETS = 10_000;
+
+    private final int sampledBuckets;
+
+    GameLog(double sampleRate) {
+        this.sampledBuckets = (int) Math.round(Math.max(0, Math.min(1, sampleRate)) * SAMPLE_BUCKETS);
+    }
+
+    boolean isSampled(String roomId) {
+        return log.isDebugEnabled() && sampled(roomId);
+    }
+
+    boolean sampled(String roomId) {
+        // Spread the hash first; room ids that share a prefix have close hash codes
+        int hash = roomId.hashCode() * 0x9E3779B9;
+        return Integer.remainderUnsigned(hash, SAMPLE_BUCKETS) < sampledBuckets;
+    }
+
+    void gameStarted(String roomId, GameStateService.MultiplayerGameState game) {
+        log.info("game started room={} players={} seed={}", roomId, game.getPlayerOrder().size(), game.getSeed());
+    }
+
+    void gameOver(String roomId, GameStateService.MultiplayerGameState game) {
+        log.info("game over room={} winner={} version={}", roomId, game.getWinner(), game.getVersion());
+    }
+
+    // Hand sizes only; the cards in each hand are not logged
+    void move(String roomId, String command, String player, GameStateService.MultiplayerGameState game) {
+        if (!isSampled(roomId)) {
+            return;
+        }
+        StringBuilder hands = new StringBuilder();
+        for (String p : game.getPlayerOrder()) {
+            if (!hands.isEmpty()) {
+                hands.append(',');
+            }
+            hands.append(game.getHandSize(p));
+        }
+        log.debug("move room={} command={} player={} version={} next={} top={} color={} drawStack={} direction={} hands={}",
+                roomId, command, player, game.getVersion(), game.getCurrentPlayerName(), Cards.name(game.getTopCard()),
+                game.getCurrentColor(), game.getDrawStack(), game.isClockwise() ? 1 : -1, hands);
+    }
+
+    void rejected(String roomId, String command, String player, String reason) {
+        if (isSampled(roomId)) {
+            log.debug("rejected room={} command={} player={} reason=\"{}\"", roomId, command, player, reason);
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.group16.uno.controller;
+
+import com.group16.uno.dto.CardDataDTO;
+import com.group16.uno.dto.GameEvent;
+import com.group16.uno.dto.HandSizes;
+import com.group16.uno.game.Cards;
+import com.group16.uno.game.Hand;
+import com.group16.uno.service.GameStateService;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Versioned STATE_DELTA payloads for clients that asked for them with getGameState {"delta": "true"}.
+ *
+ * For every room this keeps the state its clients were last sent. After a move a subscribed
+ * player only receives what changed since then: public fields that differ, the hand sizes
+ * that moved, and the cards added to or removed from their own hand. Each delta carries
+ * baseVersion and version; a client whose version is not baseVersion calls getGameState
+ * again for a full resync. A getGameState without delta, or the player's last session
+ * ending, unsubscribes them. While a room has subscribers its topic carries the public
+ * delta instead of the full public view, so subscribers get no full frame per move at all.
+ * Room views are only touched from the room's mailbox.
+ */
+public final class GameStateDeltas {
+
+    private final Map<String, RoomView> rooms = new ConcurrentHashMap<>();
+    // Games each player takes deltas in, readable from any thread
+    private final Map<String, Set<String>> subscriptions = new ConcurrentHashMap<>();
+
+    // What the room's clients were last sent
+    private static final class RoomView {
+        final Set<String> subscribers = new HashSet<>();
+        final Map<String, int[]> hands = new HashMap<>();
+        final Map<String, Long> legalMoves = new HashMap<>();
+        int version;
+        int topCard;
+        int color;
+        String currentPlayer;
+        int drawStack;
+        int direction;
+        int[] handSizes;
+
+        void capturePublic(GameStateService.MultiplayerGameState gameState) {
+            version = gameState.getVersion();
+            topCard = gameState.getTopCard();
+            color = Cards.parseColor(gameState.getCurrentColor());
+            currentPlayer = gameState.getCurrentPlayerName();
+            drawStack = gameState.getDrawStack();
+            direction = gameState.isClockwise() ? 1 : -1;
+            List<String> order = gameState.getPlayerOrder();
+            handSizes = new int[order.size()];
+            for (int seat = 0; seat < handSizes.length; seat++) {
+                handSizes[seat] = gameState.getHandSize(order.get(seat));
+            }
+        }
+    }
+
+    /**
+     * Registers the player for deltas from the game's current version on. The caller sends
+     * them the full state of that version, which the following deltas build on.
+     */
+    public void subscribe(String gameId, String player, GameStateService.MultiplayerGameState gameState) {
+        RoomView view = rooms.computeIfAbsent(gameId, id -> {
+            RoomView created = new RoomView();
+            created.capturePublic(gameState);
+            return created;
+        });
+        view.subscribers.add(player);
+        view.hands.put(player, counts(gameState.getPlayerHand(player)));
+        view.legalMoves.put(player, gameState.legalMoves(player));
+        subscriptions.compute(player, (p, games) -> {
+            Set<String> updated = games != null ? games : ConcurrentHashMap.newKeySet();
+            updated.add(gameId);
+            return updated;
+        });
+    }
+
+    // Stops deltas for the player, who gets full payloads again
+    public void unsubscribe(String gameId, String player) {
+        RoomView view = rooms.get(gameId);
+        if (view != null) {
+            view.subscribers.remove(player);
+            view.hands.remove(player);
+            view.legalMoves.remove(player);
+            if (view.subscribers.isEmpty()) {
+                rooms.remove(gameId);
+            }
+        }
+        forget(player, gameId);
+    }
+
+    // Games the player takes deltas in; unsubscribing from each must still run on its mailbox
+    public Set<String> subscribedGames(String player) {
+        Set<String> games = subscriptions.get(player);
+        return games != null ? Set.copyOf(games) : Set.of();
+    }
+
+    public void remove(String gameId) {
+        RoomView view = rooms.remove(gameId);
+        if (view != null) {
+            for (String player : view.subscribers) {
+                forget(player, gameId);
+            }
+        }
+    }
+
+    private void forget(String player, String gameId) {
+        subscriptions.computeIfPresent(player, (p, games) -> {
+            games.remove(gameId);
+            return games.isEmpty() ? null : games;
+        });
+    }
+
+    /**
+     * Moves the room's view to the game's current version. Returns null when nobody in the
+     * room takes deltas, in which case every player gets the full payload.
+     */
+    public Delta next(String gameId, GameStateService.MultiplayerGameState gameState) {
+        RoomView view = rooms.get(gameId);
+        if (view == null || view.subscribers.isEmpty()) {
+            return null;
+        }
+        int topCard = gameState.getTopCard();
+        int color = Cards.parseColor(gameState.getCurrentColor());
+        String currentPlayer = gameState.getCurrentPlayerName();
+        int direction = gameState.isClockwise() ? 1 : -1;
+        List<String> order = gameState.getPlayerOrder();
+        List<String> resized = new ArrayList<>();
+        int[] sizes = new int[order.size()];
+        for (int seat = 0; seat < order.size(); seat++) {
+            int size = gameState.getHandSize(order.get(seat));
+            if (size != view.handSizes[seat]) {
+                sizes[resized.size()] = size;
+                resized.add(order.get(seat));
+            }
+        }
+        GameEvent.StateDelta changes = new GameEvent.StateDelta(
+                view.version,
+                gameState.getVersion(),
+                null, null, null, null,
+                topCard != view.topCard ? Cards.name(topCard) : null,
+                color != view.color ? gameState.getCurrentColor() : null,
+                !currentPlayer.equals(view.currentPlayer) ? currentPlayer : null,
+                gameState.getDrawStack() != view.drawStack ? gameState.getDrawStack() : null,
+                direction != view.direction ? direction : null,
+                resized.isEmpty() ? null : new HandSizes(resized, Arrays.copyOf(sizes, resized.size())),
+                null, null, null);
+        view.capturePublic(gameState);
+        return new Delta(view, changes, gameState);
+    }
+
+    // The changes of one version, completed per recipient with their own hand
+    public static final class Delta {
+        private final RoomView view;
+        private final GameEvent.StateDelta changes;
+        private final GameStateService.MultiplayerGameState gameState;
+
+        private Delta(RoomView view, GameEvent.StateDelta changes, GameStateService.MultiplayerGameState gameState) {
+            this.view = view;
+            this.changes = changes;
+            this.gameState = gameState;
+        }
+
+        public boolean isSubscribed(String player) {
+            return view.subscribers.contains(player);
+        }
+
+        // The room-wide part of the delta, for the room topic: forPlayer without any hand
+        public GameEvent.StateDelta forTopic(GameEvent event) {
+            return withEvent(event, null, null, null);
+        }
+
+        /**
+         * The delta for one subscribed player: the move's type as "event" and its player,
+         * drawCount and winner from the room event, plus what changed. A played card is
+         * not repeated, it is the new topCard.
+         */
+        public GameEvent.StateDelta forPlayer(GameEvent event, String player) {
+            int[] sent = view.hands.get(player);
+            int[] now = counts(gameState.getPlayerHand(player));
+            List<CardDataDTO> added = new ArrayList<>();
+            List<CardDataDTO> removed = new ArrayList<>();
+            for (int face = 0; face < Cards.FACE_COUNT; face++) {
+                for (int c = sent[face]; c < now[face]; c++) added.add(Cards.toDto(face));
+                for (int c = now[face]; c < sent[face]; c++) removed.add(Cards.toDto(face));
+            }
+            view.hands.put(player, now);
+            long legalMoves = gameState.legalMoves(player);
+            boolean movesChanged = !Long.valueOf(legalMoves).equals(view.legalMoves.put(player, legalMoves));
+            return withEvent(event,
+                    added.isEmpty() ? null : added,
+                    removed.isEmpty() ? null : removed,
+                    movesChanged ? Long.toHexString(legalMoves) : null);
+        }
+
+        private GameEvent.StateDelta withEvent(GameEvent event, List<CardDataDTO> added, List<CardDataDTO> removed,
+                                               String legalMoves) {
+            String mover = null;
+            Integer drawCount = null;
+            String winner = null;
+            if (event instanceof GameEvent.CardPlayed played) {
+                mover = played.player();
+                winner = played.winner();
+            } else if (event instanceof GameEvent.CardsDrawn drawn) {
+                mover = drawn.player();
+                drawCount = drawn.drawCount();
+            }
+            return new GameEvent.StateDelta(
+                    changes.baseVersion(),
+                    changes.version(),
+                    event.type(),
+                    mover,
+                    drawCount,
+                    winner,
+                    changes.topCard(),
+                    changes.currentColor(),
+                    changes.currentPlayer(),
+                    changes.drawStack(),
+                    changes.direction(),
+                    changes.handSizes(),
+                    added,
+                    removed,
+                    legalMoves);
+        }
+    }
+
+    private static int[] counts(Hand hand) {
+        int[] counts = new int[Cards.FACE_COUNT];
+        if (hand != null) {
+            for (int face = 0; face < Cards.FACE_COUNT; face++) {
+                counts[face] = hand.count(face);
+            }
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,83 @@
+package com.group16.uno.controller;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import com.group16.uno.dto.CardDataDTO;
+import com.group16.uno.dto.GameEvent;
+import com.group16.uno.dto.HandSizes;
+import com.group16.uno.game.Cards;
+import com.group16.uno.service.GameStateService;
+
+import java.util.List;
+
+/**
+ * Builds the STOMP payloads sent after a game command. Shared by the controller and the
+ * broadcast benchmarks, so the benchmarks measure the payloads players actually receive.
+ */
+public final class GameStatePayloads {
+
+    private GameStatePayloads() {
+    }
+
+    // The event's fields plus what every player sees of the table
+    public record PublicView(@JsonUnwrapped GameEvent event, List<String> players, HandSizes handSizes,
+                             int version) {
+    }
+
+    // The part only the given player may see
+    public record PrivateView(List<CardDataDTO> playerHand, String legalMoves, int playerIndex) {
+    }
+
+    // Both views as one object, the way a player receives them
+    public record PlayerView(@JsonUnwrapped PublicView publicView, @JsonUnwrapped PrivateView privateView) {
+    }
+
+    // Room-wide part of a CARD_PLAYED / GAME_OVER broadcast
+    public static GameEvent.CardPlayed cardPlayed(String gameId, String playerName, String card,
+                                                  GameStateService.MultiplayerGameState gameState) {
+        // Check for winner
+        boolean gameOver = gameState.isGameOver();
+        return new GameEvent.CardPlayed(
+                gameOver ? "GAME_OVER" : "CARD_PLAYED",
+                playerName,
+                card,
+                gameId,
+                gameState.getCurrentPlayerName(),
+                Cards.name(gameState.getTopCard()),
+                gameState.getCurrentColor(),
+                gameState.isClockwise(),
+                gameState.getDrawStack(),
+                gameState.isClockwise() ? 1 : -1,
+                gameOver ? gameState.getWinner() : null);
+    }
+
+    // The room-wide payload with the player's own hand and seat added
+    public static PlayerView forPlayer(GameEvent event, GameStateService.MultiplayerGameState gameState, String player) {
+        return new PlayerView(publicView(event, gameState), privateView(gameState, player));
+    }
+
+    // The part of the per-player gameState payload that is the same for every player
+    public static PublicView publicView(GameEvent event, GameStateService.MultiplayerGameState gameState) {
+        return new PublicView(event, gameState.getPlayerOrder(), handSizes(gameState), gameState.getVersion());
+    }
+
+    public static PrivateView privateView(GameStateService.MultiplayerGameState gameState, String player) {
+        return new PrivateView(
+                Cards.toDtoList(gameState.getPlayerHand(player)),
+                legalMoves(gameState, player),
+                gameState.getPlayerOrder().indexOf(player));
+    }
+
+    public static HandSizes handSizes(GameStateService.MultiplayerGameState gameState) {
+        List<String> players = gameState.getPlayerOrder();
+        int[] sizes = new int[players.size()];
+        for (int seat = 0; seat < sizes.length; seat++) {
+            sizes[seat] = gameState.getHandSize(players.get(seat));
+        }
+        return new HandSizes(players, sizes);
+    }
+
+    // Playable faces as a hex bitset: bit n set means card id n (see Cards) is legal right now
+    public static String legalMoves(GameStateService.MultiplayerGameState gameState, String player) {
+        return Long.toHexString(gameState.legalMoves(player));
+    }
+}
@@ -1,16 +1,26 @@
 package com.group16.uno.controller;
 
+import com.group16.uno.config.WireFormats;
 import com.group16.uno.service.GameRoomService;
 import com.group16.uno.service.GameStateService;
 import com.group16.uno.dto.CreateRoomRequest;
 import com.group16.uno.dto.JoinRoomRequest;
 import com.group16.uno.dto.GameRoomResponse;
-import com.group16.uno.dto.CardDataDTO;
+import com.group16.uno.dto.GameEvent;
+import com.group16.uno.game.Cards;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.SendTo;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpUser;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
 import org.springframework.stereotype.Controller;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.http.ResponseEntity;
 import io.swagger.v3.oas.annotations.Operation;
@@ -25,6 +35,7 @@ import java.util.Map;
 import java.util.HashMap;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/game")
@@ -34,12 +45,34 @@ public class GameWebSocketController {
     private final GameRoomService gameRoomService;
     private final GameStateService gameStateService;
     private final SimpMessagingTemplate messagingTemplate;
+    private final SimpUserRegistry userRegistry;
+    private final SharedPayloadSender payloadSender;
+    private final GameStateDeltas stateDeltas = new GameStateDeltas();
+    private final GameLog gameLog;
+    private final Map<String, CommandTimers> commandTimers = new HashMap<>();
+
+    // Time a command waited in the room's mailbox, and time spent handling it
+    private record CommandTimers(Timer waiting, Timer handling) {
+    }
 
     @Autowired
-    public GameWebSocketController(GameRoomService gameRoomService, GameStateService gameStateService, SimpMessagingTemplate messagingTemplate) {
+    public GameWebSocketController(GameRoomService gameRoomService, GameStateService gameStateService, SimpMessagingTemplate messagingTemplate,
+                                   ObjectMapper objectMapper, WireFormats wireFormats, SimpUserRegistry userRegistry,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${game.log.sample-rate:0.1}") double logSampleRate) {
         this.gameRoomService = gameRoomService;
         this.gameStateService = gameStateService;
         this.messagingTemplate = messagingTemplate;
+        this.userRegistry = userRegistry;
+        this.payloadSender = new SharedPayloadSender(messagingTemplate, objectMapper, wireFormats, userRegistry);
+        this.gameLog = new GameLog(logSampleRate);
+        for (String command : List.of("playCard", "drawCard", "playerReady", "startGame", "getGameState")) {
+            commandTimers.put(command, new CommandTimers(
+                    Timer.builder("uno.game.command.wait").tag("command", command)
+                            .description("Time a game command waited for its room").register(meterRegistry),
+                    Timer.builder("uno.game.command").tag("command", command)
+                            .description("Time spent handling a game command").register(meterRegistry)));
+        }
     }
 
     // REST Endpoints for room management
@@ -154,14 +187,15 @@ public class GameWebSocketController {
                 return ResponseEntity.badRequest().body(errorResponse);
             }
             
-            gameRoomService.addPlayerToRoom(roomId, playerName);
+            // Checks above give precise messages; the atomic add settles concurrent joins
+            if (!gameRoomService.addPlayerToRoom(roomId, playerName)) {
+                GameRoomResponse errorResponse = new GameRoomResponse(false, "Room is full (maximum 4 players)");
+                return ResponseEntity.badRequest().body(errorResponse);
+            }
             
             // Notify other players via WebSocket
-            Map<String, Object> notification = new HashMap<>();
-            notification.put("type", "PLAYER_JOINED");
-            notification.put("player", playerName);
-            notification.put("playerCount", gameRoom.getPlayers().size());
-            notification.put("message", playerName + " joined the room");
+            GameEvent notification = new GameEvent.PlayerJoined(
+                    playerName, gameRoom.getPlayers().size(), playerName + " joined the room");
             
             messagingTemplate.convertAndSend("/topic/room/" + roomId, notification);
             
@@ -223,6 +257,10 @@ public class GameWebSocketController {
 
     @MessageMapping("/playCard") // e.g., /app/playCard
     public void playCard(Map<String, String> cardMessage) {
+        runInRoom("playCard", cardMessage.get("gameId"), () -> handlePlayCard(cardMessage));
+    }
+
+    private void handlePlayCard(Map<String, String> cardMessage) {
         String gameId = cardMessage.get("gameId");
         String card = cardMessage.get("card");
         String color = cardMessage.get("color");
@@ -231,98 +269,52 @@ public class GameWebSocketController {
         
         try {
             GameStateService.MultiplayerGameState gameState = gameStateService.getGame(gameId);
-            System.out.println("[playCard] gameState instance: " + System.identityHashCode(gameState));
-            GameRoomService.GameRoom gameRoom = gameRoomService.getGameRoom(gameId);
-            System.out.println("[playCard] gameRoom instance: " + System.identityHashCode(gameRoom));
             
             if (gameState != null && gameState.isGameStarted()) {
-                // Parse card value and color from card string (e.g., "red_7")
-                String[] cardParts = card.split("_");
-                String cardColor = cardParts.length > 1 ? cardParts[0] : color;
-                String cardValue = cardParts.length > 1 ? cardParts[1] : card;
-                
-                // Create CardDataDTO for backend validation
-                CardDataDTO cardToPlay = new CardDataDTO(cardValue, cardColor);
-                
-                // Validate if player can play this card
-                if (!gameState.getCurrentPlayerName().equals(playerName)) {
-                    throw new IllegalStateException("Not your turn");
+                // Parse card from card string (e.g., "red_7") into its registry id
+                int cardToPlay = Cards.parseCard(card, color);
+                if (cardToPlay == Cards.NONE) {
+                    throw new IllegalStateException("Unknown card: " + card);
                 }
                 
-                if (!gameState.canPlayCard(cardToPlay, playerName)) {
-                    throw new IllegalStateException("Invalid card play");
-                }
-                
-                // Play the card through backend logic
+                // Play the card through backend logic (validates turn and legality)
                 gameState.playCard(playerName, cardToPlay, chosenColor);
-
-                // Debug: Print full game state after card is played
-                System.out.println("--- Game State After Card Played ---");
-                System.out.println("Current player: " + gameState.getCurrentPlayerName());
-                System.out.println("Current color: " + gameState.getCurrentColor());
-                System.out.println("Top card: " + gameState.getTopCard());
-                System.out.println("Direction: " + (gameState.isClockwise() ? "clockwise" : "counter-clockwise"));
-                System.out.println("Draw stack: " + gameState.getDrawStack());
-                for (String p : gameState.getPlayerOrder()) {
-                    System.out.println("Player: " + p + ", Hand: " + gameState.getPlayerHand(p));
-                }
-                System.out.println("-------------------------------");
+                gameLog.move(gameId, "playCard", playerName, gameState);
                 
                 // Broadcast successful card play to all players
-                Map<String, Object> response = new HashMap<>();
-                response.put("type", "CARD_PLAYED");
-                response.put("player", playerName);
-                response.put("card", card);
-                response.put("gameId", gameId);
-                response.put("currentPlayer", gameState.getCurrentPlayerName());
-                response.put("topCard", gameState.getTopCard().toString());
-                response.put("currentColor", gameState.getCurrentColor());
-                response.put("clockwise", gameState.isClockwise());
-                response.put("drawStack", gameState.getDrawStack());
-                response.put("direction", gameState.isClockwise() ? 1 : -1);
+                GameEvent response = GameStatePayloads.cardPlayed(gameId, playerName, card, gameState);
+                GameStateDeltas.Delta delta = stateDeltas.next(gameId, gameState);
                 
-                // Check for winner
+                // Send updated game state to each player with their specific hand, and to the room
+                broadcastState(gameId, gameState, response, delta);
                 if (gameState.isGameOver()) {
-                    response.put("winner", gameState.getWinner());
-                    response.put("type", "GAME_OVER");
+                    gameLog.gameOver(gameId, gameState);
+                    // The final state has been sent; drop the game, its room and its mailbox
+                    stateDeltas.remove(gameId);
+                    gameStateService.removeGame(gameId);
+                    gameRoomService.removeRoom(gameId);
                 }
                 
-                // Send updated game state to each player with their specific hand
-                for (String player : gameState.getPlayerOrder()) {
-                    Map<String, Object> playerResponse = new HashMap<>(response);
-                    playerResponse.put("playerHand", gameState.getPlayerHand(player));
-                    playerResponse.put("players", gameState.getPlayerOrder());
-                    playerResponse.put("playerIndex", gameState.getPlayerOrder().indexOf(player));
-                    // Calculate hand sizes for all players
-                    Map<String, Integer> handSizes = new HashMap<>();
-                    for (String p : gameState.getPlayerOrder()) {
-                        handSizes.put(p, gameState.getPlayerHand(p).size());
-                    }
-                    playerResponse.put("handSizes", handSizes);
-                    messagingTemplate.convertAndSendToUser(player, "/queue/gameState", playerResponse);
-                }
-                
-                // Broadcast to room
-                messagingTemplate.convertAndSend("/topic/game/" + gameId, response);
-                
             }
         } catch (Exception e) {
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("type", "INVALID_MOVE");
-            errorResponse.put("message", "Failed to play card: " + e.getMessage());
+            gameLog.rejected(gameId, "playCard", playerName, e.getMessage());
+            GameEvent errorResponse = new GameEvent.Error("INVALID_MOVE", "Failed to play card: " + e.getMessage());
             
-            messagingTemplate.convertAndSendToUser(playerName, "/queue/errors", errorResponse);
+            payloadSender.sendToUser(playerName, "/queue/errors", errorResponse);
         }
     }
 
     @MessageMapping("/drawCard") // e.g., /app/drawCard
     public void drawCard(Map<String, String> drawMessage) {
+        runInRoom("drawCard", drawMessage.get("gameId"), () -> handleDrawCard(drawMessage));
+    }
+
+    private void handleDrawCard(Map<String, String> drawMessage) {
         String gameId = drawMessage.get("gameId");
         String playerName = drawMessage.get("player");
         String drawCount = drawMessage.get("drawCount");
         try {
             GameStateService.MultiplayerGameState gameState = gameStateService.getGame(gameId);
-            System.out.println("[drawCard] gameState instance: " + System.identityHashCode(gameState));
             if (gameState != null && gameState.isGameStarted()) {
                 // Validate it's player's turn
                 if (!gameState.getCurrentPlayerName().equals(playerName)) {
@@ -334,62 +326,32 @@ public class GameWebSocketController {
                     gameState.handleForcedDraw(playerName);
                     cardsToTraw = gameState.getDrawStack();
                 } else {
-                    // Normal draw: check for playable cards
-                    List<com.group16.uno.dto.CardDataDTO> playerHand = gameState.getPlayerHand(playerName);
-                    System.out.println("Checking playable cards for player: " + playerName);
-                    System.out.println("Current color: " + gameState.getCurrentColor());
-                    System.out.println("Top card: " + gameState.getTopCard());
-                    for (com.group16.uno.dto.CardDataDTO card : playerHand) {
-                        System.out.println("Card in hand: " + card + ", canPlayCard: " + gameState.canPlayCard(card, playerName));
-                    }
-                    boolean hasPlayable = false;
-                    for (com.group16.uno.dto.CardDataDTO card : playerHand) {
-                        if (gameState.canPlayCard(card, playerName)) {
-                            hasPlayable = true;
-                            break;
-                        }
+                    // The count is journaled and replayed, so it must be one the engine can repeat
+                    if (cardsToTraw < 1 || cardsToTraw > Cards.DECK_SIZE) {
+                        throw new IllegalArgumentException("Invalid draw count: " + drawCount);
                     }
-                    if (hasPlayable) {
-                        Map<String, Object> errorResponse = new HashMap<>();
-                        errorResponse.put("type", "ERROR");
-                        errorResponse.put("message", "You have a playable card and cannot draw.");
-                        messagingTemplate.convertAndSendToUser(playerName, "/queue/errors", errorResponse);
+                    // Normal draw: check for playable cards
+                    if (gameState.hasPlayableCard(playerName)) {
+                        gameLog.rejected(gameId, "drawCard", playerName, "has a playable card");
+                        GameEvent errorResponse = new GameEvent.Error("ERROR", "You have a playable card and cannot draw.");
+                        payloadSender.sendToUser(playerName, "/queue/errors", errorResponse);
                         return;
                     }
                     // Normal draw
-                    gameState.drawCards(playerName, cardsToTraw);
-                    gameState.moveToNextPlayer();
+                    gameState.drawAndEndTurn(playerName, cardsToTraw);
                 }
+                gameLog.move(gameId, "drawCard", playerName, gameState);
                 // Broadcast draw action to all players
-                Map<String, Object> response = new HashMap<>();
-                response.put("type", "CARDS_DRAWN");
-                response.put("player", playerName);
-                response.put("drawCount", cardsToTraw);
-                response.put("gameId", gameId);
-                response.put("currentPlayer", gameState.getCurrentPlayerName());
-                response.put("drawStack", gameState.getDrawStack());
-                // Send updated game state to each player
-                for (String player : gameState.getPlayerOrder()) {
-                    Map<String, Object> playerResponse = new HashMap<>(response);
-                    playerResponse.put("playerHand", gameState.getPlayerHand(player));
-                    playerResponse.put("players", gameState.getPlayerOrder());
-                    playerResponse.put("playerIndex", gameState.getPlayerOrder().indexOf(player));
-                    // Calculate hand sizes for all players
-                    Map<String, Integer> handSizes = new HashMap<>();
-                    for (String p : gameState.getPlayerOrder()) {
-                        handSizes.put(p, gameState.getPlayerHand(p).size());
-                    }
-                    playerResponse.put("handSizes", handSizes);
-                    messagingTemplate.convertAndSendToUser(player, "/queue/gameState", playerResponse);
-                }
-                // Broadcast to room
-                messagingTemplate.convertAndSend("/topic/game/" + gameId, response);
+                GameEvent response = new GameEvent.CardsDrawn(playerName, cardsToTraw, gameId,
+                        gameState.getCurrentPlayerName(), gameState.getDrawStack());
+                GameStateDeltas.Delta delta = stateDeltas.next(gameId, gameState);
+                // Send updated game state to each player, and to the room
+                broadcastState(gameId, gameState, response, delta);
             }
         } catch (Exception e) {
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("type", "ERROR");
-            errorResponse.put("message", "Failed to draw card: " + e.getMessage());
-            messagingTemplate.convertAndSendToUser(playerName, "/queue/errors", errorResponse);
+            gameLog.rejected(gameId, "drawCard", playerName, e.getMessage());
+            GameEvent errorResponse = new GameEvent.Error("ERROR", "Failed to draw card: " + e.getMessage());
+            payloadSender.sendToUser(playerName, "/queue/errors", errorResponse);
         }
     }
 
@@ -401,21 +363,27 @@ public class GameWebSocketController {
 
     @MessageMapping("/playerReady")
     public void playerReady(Map<String, String> readyMessage) {
+        runInRoom("playerReady", readyMessage.get("gameId"), () -> handlePlayerReady(readyMessage));
+    }
+
+    private void handlePlayerReady(Map<String, String> readyMessage) {
         String gameId = readyMessage.get("gameId");
         String playerName = readyMessage.get("player");
         GameRoomService.GameRoom gameRoom = gameRoomService.getGameRoom(gameId);
         if (gameRoom != null) {
             gameRoom.setPlayerReady(playerName, true);
             // Send updated readyStates to the client who sent PLAYER_READY
-            Map<String, Object> response = new HashMap<>();
-            response.put("type", "READY_UPDATE");
-            response.put("readyStates", gameRoom.getPlayerReadyStates());
-            messagingTemplate.convertAndSendToUser(playerName, "/queue/gameState", response);
+            GameEvent response = new GameEvent.ReadyUpdate(gameRoom.getPlayerReadyStates());
+            payloadSender.sendToUser(playerName, "/queue/gameState", response);
         }
     }
 
     @MessageMapping("/startGame") // e.g., /app/startGame
     public void startGame(Map<String, String> startMessage) {
+        runInRoom("startGame", startMessage.get("gameId"), () -> handleStartGame(startMessage));
+    }
+
+    private void handleStartGame(Map<String, String> startMessage) {
         String gameId = startMessage.get("gameId");
         String playerName = startMessage.get("player");
         try {
@@ -423,16 +391,11 @@ public class GameWebSocketController {
             if (gameRoom != null && gameRoom.getPlayers().size() >= 2) {
                 // Only the creator can start the game
                 if (!playerName.equals(gameRoom.getCreatorId())) {
-                    Map<String, Object> errorResponse = new HashMap<>();
-                    errorResponse.put("type", "ERROR");
-                    errorResponse.put("message", "Only the room creator can start the game.");
-                    messagingTemplate.convertAndSendToUser(playerName, "/queue/errors", errorResponse);
+                    GameEvent errorResponse = new GameEvent.Error("ERROR", "Only the room creator can start the game.");
+                    payloadSender.sendToUser(playerName, "/queue/errors", errorResponse);
                     return;
                 }
                 if (!gameRoom.allPlayersReady()) {
-                    Map<String, Object> errorResponse = new HashMap<>();
-                    errorResponse.put("type", "ERROR");
-                    errorResponse.put("message", "Not all players are ready.");
                     // Add list of not ready players
                     List<String> notReadyPlayers = new ArrayList<>();
                     for (Map.Entry<String, Boolean> entry : gameRoom.getPlayerReadyStates().entrySet()) {
@@ -440,57 +403,70 @@ public class GameWebSocketController {
                             notReadyPlayers.add(entry.getKey());
                         }
                     }
-                    errorResponse.put("notReadyPlayers", notReadyPlayers);
-                    messagingTemplate.convertAndSendToUser(playerName, "/queue/errors", errorResponse);
+                    GameEvent errorResponse = new GameEvent.Error("ERROR", "Not all players are ready.", notReadyPlayers);
+                    payloadSender.sendToUser(playerName, "/queue/errors", errorResponse);
                     return;
                 }
                 // Create backend game state
                 GameStateService.MultiplayerGameState gameState = gameStateService.createGame(gameId);
                 gameState.startGame(gameRoom.getPlayers());
+                stateDeltas.remove(gameId);
                 // Mark room as started
-                gameRoom.startGame(playerName);
+                gameRoom.startGame(playerName, gameState);
+                gameLog.gameStarted(gameId, gameState);
                 // Notify all players that game has started
-                Map<String, Object> response = new HashMap<>();
-                response.put("type", "GAME_STARTED");
-                response.put("gameId", gameId);
-                response.put("currentPlayer", gameState.getCurrentPlayerName());
-                response.put("topCard", gameState.getTopCard().toString());
-                response.put("currentColor", gameState.getCurrentColor());
-                response.put("players", gameState.getPlayerOrder());
-                response.put("direction", gameState.isClockwise() ? 1 : -1);
-                response.put("message", "Game started!");
-                response.put("readyStates", gameRoom.getPlayerReadyStates());
-                // Send game state to each player with their specific hand
-                for (String player : gameState.getPlayerOrder()) {
-                    Map<String, Object> playerResponse = new HashMap<>(response);
-                    playerResponse.put("playerHand", gameState.getPlayerHand(player));
-                    playerResponse.put("players", gameState.getPlayerOrder());
-                    playerResponse.put("playerIndex", gameState.getPlayerOrder().indexOf(player));
-                    // Calculate hand sizes for all players
-                    Map<String, Integer> handSizes = new HashMap<>();
-                    for (String p : gameState.getPlayerOrder()) {
-                        handSizes.put(p, gameState.getPlayerHand(p).size());
-                    }
-                    playerResponse.put("handSizes", handSizes);
-                    messagingTemplate.convertAndSendToUser(player, "/queue/gameState", playerResponse);
-                }
-                // Also broadcast to room
-                messagingTemplate.convertAndSend("/topic/game/" + gameId, response);
+                GameEvent response = new GameEvent.GameStarted(gameId, gameState.getCurrentPlayerName(),
+                        Cards.name(gameState.getTopCard()), gameState.getCurrentColor(),
+                        gameState.isClockwise() ? 1 : -1, "Game started!", gameRoom.getPlayerReadyStates());
+                // Send game state to each player with their specific hand, and to the room
+                broadcastState(gameId, gameState, response, null);
             }
         } catch (Exception e) {
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("type", "ERROR");
-            errorResponse.put("message", "Failed to start game: " + e.getMessage());
-            messagingTemplate.convertAndSendToUser(playerName, "/queue/errors", errorResponse);
+            GameEvent errorResponse = new GameEvent.Error("ERROR", "Failed to start game: " + e.getMessage());
+            payloadSender.sendToUser(playerName, "/queue/errors", errorResponse);
+        }
+    }
+
+    /**
+     * Sends the state after a command: every player gets the public view plus their own hand
+     * (or their STATE_DELTA when subscribed), and the room topic gets the public view, or the
+     * public delta while anyone in the room is subscribed.
+     * The public view is serialized once per wire format and shared by all of these messages.
+     */
+    private void broadcastState(String gameId, GameStateService.MultiplayerGameState gameState,
+                                GameEvent response, GameStateDeltas.Delta delta) {
+        SharedPayloadSender.Shared publicView = payloadSender.share(GameStatePayloads.publicView(response, gameState));
+        for (String player : gameState.getPlayerOrder()) {
+            if (delta != null && delta.isSubscribed(player)) {
+                payloadSender.sendToUser(player, "/queue/gameState", delta.forPlayer(response, player));
+            } else {
+                payloadSender.sendToUser(player, "/queue/gameState", publicView, GameStatePayloads.privateView(gameState, player));
+            }
+        }
+        // Delta subscribers are on the topic too, so a room that has them gets the public delta there
+        if (delta != null) {
+            payloadSender.send("/topic/game/" + gameId, delta.forTopic(response));
+        } else {
+            payloadSender.send("/topic/game/" + gameId, publicView);
         }
     }
 
-    private Map<String, Integer> getHandSizes(GameRoomService.GameRoom gameRoom) {
-        Map<String, Integer> handSizes = new HashMap<>();
-        for (String player : gameRoom.getPlayers()) {
-            handSizes.put(player, gameRoom.getPlayerHandSize(player));
+    // Room commands run on the room's mailbox so each game is only mutated by one thread at a time.
+    // Ids of rooms that do not exist never get a mailbox.
+    private void runInRoom(String command, String gameId, Runnable handler) {
+        if (gameId != null && gameRoomService.getGameRoom(gameId) != null) {
+            CommandTimers timers = commandTimers.get(command);
+            long received = System.nanoTime();
+            gameStateService.execute(gameId, () -> {
+                long started = System.nanoTime();
+                timers.waiting().record(started - received, TimeUnit.NANOSECONDS);
+                try {
+                    handler.run();
+                } finally {
+                    timers.handling().record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                }
+            });
         }
-        return handSizes;
     }
 
     // WebSocket Message Handlers for real-time gameplay
@@ -504,50 +480,57 @@ public class GameWebSocketController {
             
             if (gameRoom != null) {
                 // Notify all players in the room about the WebSocket connection
-                Map<String, Object> response = new HashMap<>();
-                response.put("type", "PLAYER_CONNECTED");
-                response.put("player", playerName);
-                response.put("gameId", gameId);
-                response.put("message", playerName + " connected to game");
+                GameEvent response = new GameEvent.PlayerConnected(playerName, gameId, playerName + " connected to game");
                 
                 messagingTemplate.convertAndSend("/topic/game/" + gameId, response);
             }
         } catch (Exception e) {
             // Send error message back to the player
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("type", "ERROR");
-            errorResponse.put("message", "Failed to join game via WebSocket: " + e.getMessage());
+            GameEvent errorResponse = new GameEvent.Error("ERROR", "Failed to join game via WebSocket: " + e.getMessage());
             
-            messagingTemplate.convertAndSendToUser(playerName, "/queue/errors", errorResponse);
+            payloadSender.sendToUser(playerName, "/queue/errors", errorResponse);
         }
     }
 
     @MessageMapping("/getGameState")
     public void getGameState(Map<String, String> message) {
+        runInRoom("getGameState", message.get("gameId"), () -> handleGetGameState(message));
+    }
+
+    private void handleGetGameState(Map<String, String> message) {
         String gameId = message.get("gameId");
         String playerName = message.get("player");
         GameRoomService.GameRoom gameRoom = gameRoomService.getGameRoom(gameId);
         GameStateService.MultiplayerGameState gameState = gameStateService.getGame(gameId);
         if (gameRoom != null && gameState != null && gameRoom.isGameStarted()) {
-            Map<String, Object> response = new HashMap<>();
-            response.put("type", "GAME_STATE");
-            response.put("gameId", gameId);
-            response.put("currentPlayer", gameState.getCurrentPlayerName());
-            response.put("topCard", gameState.getTopCard().toString());
-            response.put("currentColor", gameState.getCurrentColor());
-            response.put("players", gameState.getPlayerOrder());
-            response.put("direction", gameState.isClockwise() ? 1 : -1);
-            response.put("message", "Current game state");
-            response.put("readyStates", gameRoom.getPlayerReadyStates());
-            // Per-user fields
-            response.put("playerHand", gameState.getPlayerHand(playerName));
-            response.put("playerIndex", gameState.getPlayerOrder().indexOf(playerName));
-            Map<String, Integer> handSizes = new HashMap<>();
-            for (String p : gameState.getPlayerOrder()) {
-                handSizes.put(p, gameState.getPlayerHand(p).size());
+            GameEvent response = new GameEvent.GameState(gameId, gameState.getCurrentPlayerName(),
+                    Cards.name(gameState.getTopCard()), gameState.getCurrentColor(),
+                    gameState.isClockwise() ? 1 : -1, "Current game state", gameRoom.getPlayerReadyStates());
+            // Also a resync: later moves arrive as STATE_DELTA on top of this version
+            if ("true".equals(message.get("delta"))) {
+                stateDeltas.subscribe(gameId, playerName, gameState);
+            } else {
+                stateDeltas.unsubscribe(gameId, playerName);
             }
-            response.put("handSizes", handSizes);
-            messagingTemplate.convertAndSendToUser(playerName, "/queue/gameState", response);
+            // Per-user fields
+            payloadSender.sendToUser(playerName, "/queue/gameState", GameStatePayloads.forPlayer(response, gameState, playerName));
+        }
+    }
+
+    // A player whose last session ended has nobody left to apply deltas
+    @EventListener
+    public void onSessionDisconnect(SessionDisconnectEvent event) {
+        if (event.getUser() == null) {
+            return;
+        }
+        String player = event.getUser().getName();
+        SimpUser user = userRegistry.getUser(player);
+        if (user != null && user.getSessions().stream().anyMatch(session -> !session.getId().equals(event.getSessionId()))) {
+            return;
+        }
+        // A finished game dropped its deltas with its mailbox; do not bring the mailbox back for it
+        for (String gameId : stateDeltas.subscribedGames(player)) {
+            gameStateService.executeIfPresent(gameId, () -> stateDeltas.unsubscribe(gameId, player));
         }
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,256 @@
+package com.group16.uno.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.group16.uno.config.CoalescingSessionDecorator;
+import com.group16.uno.config.WireFormats;
+import com.group16.uno.dto.CardDataDTO;
+import com.group16.uno.dto.GameEvent;
+import com.group16.uno.game.Cards;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpUser;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Sends payloads that were encoded ahead of time, so the public part of a game update is
+ * serialized once per version and shared by every recipient. Each player's private fields
+ * are encoded separately and spliced into a copy of the shared bytes.
+ * The bytes skip the template's message converters and reach the broker as they are.
+ * Payloads are records, so each class gets one ObjectWriter with its serializer resolved up front.
+ *
+ * Sessions that negotiated CBOR (see WireFormats) get the same fields in CBOR, with cards
+ * written as their Cards id instead of a value/color object. A player with a CBOR session
+ * gets one message per session, each addressed to its session id; everyone else gets
+ * one JSON message for all of their sessions.
+ *
+ * Full game states and deltas carry a "state" header, so a session that falls behind can
+ * drop the queued ones a newer full state supersedes (see CoalescingSessionDecorator).
+ */
+public class SharedPayloadSender {
+
+    private static final byte CBOR_START_MAP = (byte) 0xBF;
+    private static final byte CBOR_BREAK = (byte) 0xFF;
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final WireFormats wireFormats;
+    private final SimpUserRegistry userRegistry;
+    private final ClassValue<ObjectWriter> jsonWriters;
+    private final ClassValue<ObjectWriter> cborWriters;
+
+    // A payload shared by several messages, encoded at most once per format
+    public final class Shared {
+        private final Object payload;
+        private final byte[][] encoded = new byte[WireFormats.WireFormat.values().length][];
+
+        private Shared(Object payload) {
+            this.payload = payload;
+        }
+
+        public byte[] encoded(WireFormats.WireFormat format) {
+            byte[] bytes = encoded[format.ordinal()];
+            if (bytes == null) {
+                bytes = encode(payload, format);
+                encoded[format.ordinal()] = bytes;
+            }
+            return bytes;
+        }
+    }
+
+    public SharedPayloadSender(SimpMessagingTemplate messagingTemplate, ObjectMapper objectMapper) {
+        this(messagingTemplate, objectMapper, new WireFormats());
+    }
+
+    public SharedPayloadSender(SimpMessagingTemplate messagingTemplate, ObjectMapper objectMapper, WireFormats wireFormats) {
+        this(messagingTemplate, objectMapper, wireFormats, null);
+    }
+
+    public SharedPayloadSender(SimpMessagingTemplate messagingTemplate, ObjectMapper objectMapper, WireFormats wireFormats,
+                               SimpUserRegistry userRegistry) {
+        this.messagingTemplate = messagingTemplate;
+        this.wireFormats = wireFormats;
+        this.userRegistry = userRegistry;
+        this.jsonWriters = writers(objectMapper);
+        this.cborWriters = writers(CBORMapper.builder()
+                .addModule(new BlackbirdModule())
+                .addModule(new SimpleModule().addSerializer(new CardIdSerializer()))
+                .build());
+    }
+
+    private static ClassValue<ObjectWriter> writers(ObjectMapper mapper) {
+        return new ClassValue<>() {
+            @Override
+            protected ObjectWriter computeValue(Class<?> type) {
+                return mapper.writerFor(type);
+            }
+        };
+    }
+
+    public byte[] encode(Object payload) {
+        return encode(payload, WireFormats.WireFormat.JSON);
+    }
+
+    public byte[] encode(Object payload, WireFormats.WireFormat format) {
+        ClassValue<ObjectWriter> writers = format == WireFormats.WireFormat.CBOR ? cborWriters : jsonWriters;
+        try {
+            return writers.get(payload.getClass()).writeValueAsBytes(payload);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public Shared share(Object payload) {
+        return new Shared(payload);
+    }
+
+    /**
+     * Joins two encoded JSON objects into one: {"a":1} and {"b":2} become {"a":1,"b":2}.
+     * Keys must not repeat between the two parts.
+     */
+    public static byte[] merge(byte[] sharedJson, byte[] privateJson) {
+        if (privateJson.length <= 2) {
+            return sharedJson;
+        }
+        if (sharedJson.length <= 2) {
+            return privateJson;
+        }
+        byte[] merged = new byte[sharedJson.length + privateJson.length - 1];
+        System.arraycopy(sharedJson, 0, merged, 0, sharedJson.length - 1);
+        merged[sharedJson.length - 1] = ',';
+        System.arraycopy(privateJson, 1, merged, sharedJson.length, privateJson.length - 1);
+        return merged;
+    }
+
+    /**
+     * The same join for two CBOR maps. Jackson writes objects as indefinite-length maps,
+     * so the shared map's break byte and the private map's start byte are dropped.
+     */
+    public static byte[] mergeCbor(byte[] sharedCbor, byte[] privateCbor) {
+        if (sharedCbor[0] != CBOR_START_MAP || sharedCbor[sharedCbor.length - 1] != CBOR_BREAK
+                || privateCbor[0] != CBOR_START_MAP || privateCbor[privateCbor.length - 1] != CBOR_BREAK) {
+            throw new IllegalArgumentException("Not an indefinite-length CBOR map");
+        }
+        byte[] merged = new byte[sharedCbor.length + privateCbor.length - 2];
+        System.arraycopy(sharedCbor, 0, merged, 0, sharedCbor.length - 1);
+        System.arraycopy(privateCbor, 1, merged, sharedCbor.length - 1, privateCbor.length - 1);
+        return merged;
+    }
+
+    // Sends the payload to each of the user's sessions in the format it negotiated
+    public void sendToUser(String user, String destination, Object payload) {
+        sendToUser(user, destination, stateOf(payload), format -> encode(payload, format));
+    }
+
+    // Sends the shared payload with the user's private part spliced in
+    public void sendToUser(String user, String destination, Shared shared, Object privatePart) {
+        sendToUser(user, destination, CoalescingSessionDecorator.FULL_STATE, format -> {
+            byte[] sharedBytes = shared.encoded(format);
+            byte[] privateBytes = encode(privatePart, format);
+            return format == WireFormats.WireFormat.CBOR
+                    ? mergeCbor(sharedBytes, privateBytes)
+                    : merge(sharedBytes, privateBytes);
+        });
+    }
+
+    public void sendToUser(String user, String destination, byte[] json) {
+        send(userDestination(user, destination), json);
+    }
+
+    private void sendToUser(String user, String destination, String state,
+                            Function<WireFormats.WireFormat, byte[]> encoder) {
+        String userDestination = userDestination(user, destination);
+        Map<String, WireFormats.WireFormat> sessions = wireFormats.sessionFormats(user);
+        if (sessions.isEmpty()) {
+            send(userDestination, encoder.apply(WireFormats.WireFormat.JSON), WireFormats.WireFormat.JSON, state, null);
+            return;
+        }
+        // Spring sends to all of the user's sessions if the session id is not registered, so skip those
+        SimpUser simpUser = userRegistry != null ? userRegistry.getUser(user) : null;
+        // Encoded at most once per format
+        byte[][] encoded = new byte[WireFormats.WireFormat.values().length][];
+        sessions.forEach((sessionId, format) -> {
+            if (userRegistry != null && (simpUser == null || simpUser.getSession(sessionId) == null)) {
+                return;
+            }
+            byte[] bytes = encoded[format.ordinal()];
+            if (bytes == null) {
+                bytes = encoder.apply(format);
+                encoded[format.ordinal()] = bytes;
+            }
+            send(userDestination, bytes, format, state, sessionId);
+        });
+    }
+
+    // Topics are shared by every subscriber, so they stay JSON
+    public void send(String destination, Shared shared) {
+        send(destination, shared.encoded(WireFormats.WireFormat.JSON), WireFormats.WireFormat.JSON,
+                CoalescingSessionDecorator.FULL_STATE, null);
+    }
+
+    public void send(String destination, Object payload) {
+        send(destination, encode(payload, WireFormats.WireFormat.JSON), WireFormats.WireFormat.JSON,
+                stateOf(payload), null);
+    }
+
+    public void send(String destination, byte[] json) {
+        send(destination, json, WireFormats.WireFormat.JSON, null, null);
+    }
+
+    // With a session id, the user destination resolves to that session only
+    private void send(String destination, byte[] payload, WireFormats.WireFormat format, String state, String sessionId) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setContentType(format.getContentType());
+        if (sessionId != null) {
+            accessor.setSessionId(sessionId);
+        }
+        if (state != null) {
+            accessor.setNativeHeader(CoalescingSessionDecorator.STATE_HEADER, state);
+        }
+        accessor.setLeaveMutable(true);
+        Message<byte[]> message = MessageBuilder.createMessage(payload, accessor.getMessageHeaders());
+        messagingTemplate.send(destination, message);
+    }
+
+    private static String stateOf(Object payload) {
+        if (payload instanceof GameStatePayloads.PlayerView) {
+            return CoalescingSessionDecorator.FULL_STATE;
+        }
+        return payload instanceof GameEvent.StateDelta ? CoalescingSessionDecorator.DELTA_STATE : null;
+    }
+
+    private String userDestination(String user, String destination) {
+        // Same user destination convertAndSendToUser builds
+        Assert.notNull(user, "User must not be null");
+        String encodedUser = StringUtils.replace(user, "/", "%2F");
+        return messagingTemplate.getUserDestinationPrefix() + encodedUser + destination;
+    }
+
+    // Cards as their registry id, one or two bytes in CBOR
+    private static final class CardIdSerializer extends StdSerializer<CardDataDTO> {
+        CardIdSerializer() {
+            super(CardDataDTO.class);
+        }
+
+        @Override
+        public void serialize(CardDataDTO card, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeNumber(Cards.fromDto(card));
+        }
+    }
+}
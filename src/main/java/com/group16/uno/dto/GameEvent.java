@@ -0,0 +1,94 @@
+package com.group16.uno.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Messages the game sends over STOMP. Each one is a single immutable record whose
+ * components are the JSON fields, in order; "type" comes first and null fields are left out.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonPropertyOrder({"type"})
+public sealed interface GameEvent {
+
+    @JsonProperty("type")
+    String type();
+
+    record PlayerJoined(String player, int playerCount, String message) implements GameEvent {
+        @Override
+        public String type() {
+            return "PLAYER_JOINED";
+        }
+    }
+
+    record PlayerConnected(String player, String gameId, String message) implements GameEvent {
+        @Override
+        public String type() {
+            return "PLAYER_CONNECTED";
+        }
+    }
+
+    record ReadyUpdate(Map<String, Boolean> readyStates) implements GameEvent {
+        @Override
+        public String type() {
+            return "READY_UPDATE";
+        }
+    }
+
+    // Players, hand sizes and version are added by the public view (see GameStatePayloads)
+    record GameStarted(String gameId, String currentPlayer, String topCard, String currentColor,
+                       int direction, String message, Map<String, Boolean> readyStates) implements GameEvent {
+        @Override
+        public String type() {
+            return "GAME_STARTED";
+        }
+    }
+
+    record GameState(String gameId, String currentPlayer, String topCard, String currentColor,
+                     int direction, String message, Map<String, Boolean> readyStates) implements GameEvent {
+        @Override
+        public String type() {
+            return "GAME_STATE";
+        }
+    }
+
+    // CARD_PLAYED, or GAME_OVER with the winner when the card ended the game
+    record CardPlayed(String type, String player, String card, String gameId, String currentPlayer,
+                      String topCard, String currentColor, boolean clockwise, int drawStack, int direction,
+                      String winner) implements GameEvent {
+    }
+
+    record CardsDrawn(String player, int drawCount, String gameId, String currentPlayer,
+                      int drawStack) implements GameEvent {
+        @Override
+        public String type() {
+            return "CARDS_DRAWN";
+        }
+    }
+
+    /**
+     * A move for clients that take deltas (see GameStateDeltas). Only what changed since
+     * baseVersion is set; the rest stays null and is not sent.
+     */
+    record StateDelta(int baseVersion, int version, String event, String player, Integer drawCount,
+                      String winner, String topCard, String currentColor, String currentPlayer,
+                      Integer drawStack, Integer direction, HandSizes handSizes,
+                      List<CardDataDTO> handAdded, List<CardDataDTO> handRemoved,
+                      String legalMoves) implements GameEvent {
+        @Override
+        public String type() {
+            return "STATE_DELTA";
+        }
+    }
+
+    // ERROR or INVALID_MOVE; notReadyPlayers only when a start was refused for them
+    record Error(String type, String message, List<String> notReadyPlayers) implements GameEvent {
+        public Error(String type, String message) {
+            this(type, message, null);
+        }
+    }
+}
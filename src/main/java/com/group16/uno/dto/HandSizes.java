@@ -0,0 +1,33 @@
+package com.group16.uno.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Number of cards per player, written as the JSON object {"alice": 7, "bob": 5}
+ * straight from the int array, without a map of boxed counts.
+ */
+@JsonSerialize(using = HandSizes.Serializer.class)
+public record HandSizes(List<String> players, int[] sizes) {
+
+    static final class Serializer extends StdSerializer<HandSizes> {
+        Serializer() {
+            super(HandSizes.class);
+        }
+
+        @Override
+        public void serialize(HandSizes handSizes, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(handSizes);
+            for (int i = 0; i < handSizes.sizes.length; i++) {
+                gen.writeFieldName(handSizes.players.get(i));
+                gen.writeNumber(handSizes.sizes[i]);
+            }
+            gen.writeEndObject();
+        }
+    }
+}
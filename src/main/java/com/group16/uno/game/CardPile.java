@@ -0,0 +1,111 @@
+package com.group16.uno.game;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Fixed-capacity stack of card face ids, used for both the draw deck and the discard pile.
+ * Draws and plays happen at the tail, so neither shifts the remaining cards.
+ */
+public final class CardPile {
+
+    private final int[] cards;
+    private int size;
+
+    public CardPile() {
+        this(Cards.DECK_SIZE);
+    }
+
+    public CardPile(int capacity) {
+        this.cards = new int[capacity];
+    }
+
+    // Fills the pile with one complete 108-card deck, in face order
+    public void fillFullDeck() {
+        size = 0;
+        for (int face = 0; face < Cards.FACE_COUNT; face++) {
+            for (int i = 0; i < Cards.copies(face); i++) {
+                cards[size++] = face;
+            }
+        }
+    }
+
+    public void push(int card) {
+        if (size == cards.length) {
+            throw new IllegalStateException("Card pile is full");
+        }
+        cards[size++] = card;
+    }
+
+    // Returns Cards.NONE when the pile is empty
+    public int pop() {
+        return size == 0 ? Cards.NONE : cards[--size];
+    }
+
+    public int peek() {
+        return size == 0 ? Cards.NONE : cards[size - 1];
+    }
+
+    public int get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        return cards[index];
+    }
+
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+    public void clear() { size = 0; }
+
+    // In-place Fisher-Yates shuffle
+    public void shuffle(GameRandom random) {
+        for (int i = size - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = cards[i];
+            cards[i] = cards[j];
+            cards[j] = tmp;
+        }
+    }
+
+    /**
+     * Moves every card of the given discard pile except its top card onto this pile,
+     * leaving the top card as the only card of the discard pile. Nothing is allocated.
+     *
+     * @return the number of cards moved
+     */
+    public int recycleFrom(CardPile discardPile) {
+        int moved = discardPile.size - 1;
+        if (moved <= 0) {
+            return 0;
+        }
+        if (size + moved > cards.length) {
+            throw new IllegalStateException("Card pile is full");
+        }
+        System.arraycopy(discardPile.cards, 0, cards, size, moved);
+        size += moved;
+        discardPile.cards[0] = discardPile.cards[moved];
+        discardPile.size = 1;
+        return moved;
+    }
+
+    // Snapshot form: [short size][one byte per card, bottom first]
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeShort(size);
+        for (int i = 0; i < size; i++) {
+            out.writeByte(cards[i]);
+        }
+    }
+
+    // Replaces the pile's contents with a pile written by writeTo
+    public void readFrom(DataInput in) throws IOException {
+        int count = in.readShort();
+        if (count < 0 || count > cards.length) {
+            throw new IOException("Card pile of " + count + " cards does not fit");
+        }
+        for (int i = 0; i < count; i++) {
+            cards[i] = in.readByte();
+        }
+        size = count;
+    }
+}
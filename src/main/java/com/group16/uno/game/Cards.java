@@ -0,0 +1,149 @@
+package com.group16.uno.game;
+
+import com.group16.uno.dto.CardDataDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Immutable registry of the 54 distinct UNO card faces.
+ * The game engine works on small integer face ids; value and color names
+ * are only needed when converting to and from {@link CardDataDTO}.
+ *
+ * Face ids 0..51 are the colored cards (color * 13 + value),
+ * 52 is Wild and 53 is Wild Draw Four.
+ */
+public final class Cards {
+
+    public static final int NONE = -1;
+
+    // Colors
+    public static final int RED = 0;
+    public static final int YELLOW = 1;
+    public static final int GREEN = 2;
+    public static final int BLUE = 3;
+    public static final int BLACK = 4;
+    public static final int COLOR_COUNT = 4;
+
+    // Values
+    public static final int SKIP = 10;
+    public static final int REVERSE = 11;
+    public static final int DRAW_TWO = 12;
+    public static final int WILD_VALUE = 13;
+    public static final int WILD_DRAW_FOUR_VALUE = 14;
+    public static final int COLORED_VALUE_COUNT = 13;
+
+    // Faces
+    public static final int WILD = 52;
+    public static final int WILD_DRAW_FOUR = 53;
+    public static final int FACE_COUNT = 54;
+    public static final int DECK_SIZE = 108;
+
+    private static final String[] COLOR_NAMES = {"red", "yellow", "green", "blue", "black"};
+    private static final String[] VALUE_NAMES = {
+            "0", "1", "2", "3", "4", "5", "6", "7", "8", "9",
+            "Skip", "Reverse", "Draw Two", "Wild", "Wild Draw Four"
+    };
+
+    private static final int[] FACE_COLOR = new int[FACE_COUNT];
+    private static final int[] FACE_VALUE = new int[FACE_COUNT];
+    private static final String[] FACE_NAMES = new String[FACE_COUNT];
+    private static final long[] COLOR_FACES = new long[BLACK + 1];
+    private static final long[] VALUE_FACES = new long[WILD_DRAW_FOUR_VALUE + 1];
+
+    static {
+        for (int face = 0; face < FACE_COUNT; face++) {
+            if (face < WILD) {
+                FACE_COLOR[face] = face / COLORED_VALUE_COUNT;
+                FACE_VALUE[face] = face % COLORED_VALUE_COUNT;
+            } else {
+                FACE_COLOR[face] = BLACK;
+                FACE_VALUE[face] = face == WILD ? WILD_VALUE : WILD_DRAW_FOUR_VALUE;
+            }
+            FACE_NAMES[face] = COLOR_NAMES[FACE_COLOR[face]] + "_" + VALUE_NAMES[FACE_VALUE[face]];
+            COLOR_FACES[FACE_COLOR[face]] |= bit(face);
+            VALUE_FACES[FACE_VALUE[face]] |= bit(face);
+        }
+    }
+
+    private Cards() {}
+
+    public static int face(int color, int value) {
+        if (value == WILD_VALUE) return WILD;
+        if (value == WILD_DRAW_FOUR_VALUE) return WILD_DRAW_FOUR;
+        return color * COLORED_VALUE_COUNT + value;
+    }
+
+    public static int color(int face) { return FACE_COLOR[face]; }
+    public static int value(int face) { return FACE_VALUE[face]; }
+    public static boolean isWild(int face) { return face >= WILD; }
+
+    // Face sets are longs with one bit per face id (all 54 ids fit in 64 bits)
+    public static long bit(int face) { return 1L << face; }
+    public static long colorFaces(int color) { return COLOR_FACES[color]; }
+    public static long valueFaces(int value) { return VALUE_FACES[value]; }
+
+    // Number of copies of a face in a full deck
+    public static int copies(int face) {
+        if (isWild(face)) return 4;
+        return value(face) == 0 ? 1 : 2;
+    }
+
+    public static String colorName(int color) {
+        return color >= 0 && color < COLOR_NAMES.length ? COLOR_NAMES[color] : null;
+    }
+
+    public static String valueName(int face) { return VALUE_NAMES[value(face)]; }
+
+    // Same format as CardDataDTO.toString(), e.g. "red_7"
+    public static String name(int face) { return FACE_NAMES[face]; }
+
+    public static int parseColor(String color) {
+        if (color == null) return NONE;
+        for (int i = 0; i < COLOR_NAMES.length; i++) {
+            if (COLOR_NAMES[i].equalsIgnoreCase(color)) return i;
+        }
+        return NONE;
+    }
+
+    public static int parseValue(String value) {
+        if (value == null) return NONE;
+        for (int i = 0; i < VALUE_NAMES.length; i++) {
+            if (VALUE_NAMES[i].equalsIgnoreCase(value)) return i;
+        }
+        return NONE;
+    }
+
+    public static int parse(String value, String color) {
+        int v = parseValue(value);
+        if (v == NONE) return NONE;
+        if (v >= WILD_VALUE) return face(BLACK, v);
+        int c = parseColor(color);
+        return c >= 0 && c < COLOR_COUNT ? face(c, v) : NONE;
+    }
+
+    // Parses the "color_value" form sent by clients, falling back to a separate color field
+    public static int parseCard(String card, String fallbackColor) {
+        if (card == null) return NONE;
+        int sep = card.indexOf('_');
+        if (sep < 0) return parse(card, fallbackColor);
+        return parse(card.substring(sep + 1), card.substring(0, sep));
+    }
+
+    public static int fromDto(CardDataDTO card) {
+        return card == null ? NONE : parse(card.getValue(), card.getColor());
+    }
+
+    public static CardDataDTO toDto(int face) {
+        return new CardDataDTO(valueName(face), colorName(color(face)));
+    }
+
+    public static List<CardDataDTO> toDtoList(Hand hand) {
+        if (hand == null) return new ArrayList<>();
+        List<CardDataDTO> cards = new ArrayList<>(hand.size());
+        for (int face : hand.toArray()) {
+            cards.add(toDto(face));
+        }
+        return cards;
+    }
+}
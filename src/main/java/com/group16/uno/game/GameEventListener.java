@@ -0,0 +1,24 @@
+package com.group16.uno.game;
+
+import java.util.List;
+
+/**
+ * Receives every command a game accepted, after the state change has been applied.
+ * Players are identified by their seat in the game's player order. Together with
+ * the seed these calls are enough to rebuild the game by replaying them.
+ * version is the number of commands the game has accepted, including this one.
+ */
+public interface GameEventListener {
+
+    // players is the list passed to startGame, before the seeded seat shuffle
+    void gameStarted(int version, long seed, List<String> players);
+
+    void cardPlayed(int version, int seat, int card, int color);
+
+    // Voluntary draw that ends the player's turn
+    void cardsDrawn(int version, int seat, int count);
+
+    void forcedDraw(int version, int seat);
+
+    void gameRemoved();
+}
@@ -0,0 +1,217 @@
+package com.group16.uno.game;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of binary records, stored in fixed-size memory-mapped segment files.
+ *
+ * Each record is written as [int length][int crc32][payload]. Appends only queue a copy of
+ * the record, so room mailboxes never wait on each other or on the disk. Every flush interval
+ * a background thread writes the queued records, in append order, into the mapped segment and
+ * forces them to disk, so many records share one sync (group commit). Segments are
+ * zero-filled when created, so a zero length marks the end of a segment's data.
+ */
+public final class GameJournal implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(GameJournal.class);
+
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int HEADER_SIZE = 8;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final CRC32 crc = new CRC32();
+    private final ScheduledExecutorService flusher;
+    private final Queue<byte[]> pending = new ConcurrentLinkedQueue<>();
+
+    // Guarded by this; only the flusher, rollover and close write to the segment
+    private MappedByteBuffer segment;
+    private volatile long segmentIndex;
+    private int flushedPosition;
+
+    public GameJournal(Path directory, int segmentSize, long flushIntervalMillis) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        Files.createDirectories(directory);
+        List<Path> existing = segments();
+        this.segmentIndex = existing.isEmpty() ? 0 : indexOf(existing.get(existing.size() - 1));
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "game-journal-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.flusher.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Passes the payload of every intact record to the consumer, oldest first.
+     * Reading a segment stops at its first empty or corrupt record, which is where a crash cut it off.
+     */
+    public void replay(Consumer<ByteBuffer> consumer) throws IOException {
+        replay(0, consumer);
+    }
+
+    // Same as replay(consumer), skipping segments older than fromSegment
+    public void replay(long fromSegment, Consumer<ByteBuffer> consumer) throws IOException {
+        CRC32 check = new CRC32();
+        for (Path path : segments()) {
+            if (indexOf(path) < fromSegment) {
+                continue;
+            }
+            ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(path));
+            while (data.remaining() >= HEADER_SIZE) {
+                int length = data.getInt();
+                int checksum = data.getInt();
+                if (length <= 0 || length > data.remaining()) {
+                    break;
+                }
+                ByteBuffer payload = data.slice(data.position(), length);
+                check.reset();
+                check.update(payload.duplicate());
+                if ((int) check.getValue() != checksum) {
+                    break;
+                }
+                consumer.accept(payload);
+                data.position(data.position() + length);
+            }
+        }
+    }
+
+    /**
+     * Queues one record, read from the payload's position to its limit. It is written and
+     * forced to disk by the next flush, after every record appended before it.
+     */
+    public void append(ByteBuffer payload) {
+        int length = payload.remaining();
+        if (length + HEADER_SIZE > segmentSize) {
+            throw new IllegalArgumentException("Record of " + length + " bytes does not fit in a journal segment");
+        }
+        byte[] record = new byte[length];
+        payload.get(record);
+        pending.add(record);
+    }
+
+    /**
+     * Index of the segment being written. A record appended now lands in this segment or a
+     * later one, never an earlier one.
+     */
+    public long currentSegment() {
+        return segmentIndex;
+    }
+
+    // Writes the queued records and forces everything written so far to disk
+    public synchronized void flush() {
+        try {
+            writePending();
+        } catch (IOException e) {
+            log.error("Could not write game journal records", e);
+        }
+        if (segment == null || segment.position() == flushedPosition) {
+            return;
+        }
+        segment.force(flushedPosition, segment.position() - flushedPosition);
+        flushedPosition = segment.position();
+    }
+
+    private void writePending() throws IOException {
+        byte[] record;
+        while ((record = pending.poll()) != null) {
+            if (segment == null || segment.remaining() < record.length + HEADER_SIZE) {
+                roll();
+            }
+            crc.reset();
+            crc.update(record);
+            int start = segment.position();
+            // Write the payload before the length so a torn write never looks like a complete record
+            segment.position(start + HEADER_SIZE);
+            segment.put(record);
+            segment.putInt(start + 4, (int) crc.getValue());
+            segment.putInt(start, record.length);
+        }
+    }
+
+    /**
+     * Closes the current segment and starts a new one, returning the new segment's index.
+     * Every record appended before the call lives in an older segment.
+     */
+    public synchronized long rollover() throws IOException {
+        writePending();
+        roll();
+        return segmentIndex;
+    }
+
+    // Deletes segments older than the given index, once nothing needs their records
+    public void deleteSegmentsBefore(long index) throws IOException {
+        for (Path path : segments()) {
+            if (indexOf(path) < index) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private void roll() throws IOException {
+        if (segment != null) {
+            segment.force();
+        }
+        segmentIndex++;
+        Path path = directory.resolve(String.format("%s%016d%s", SEGMENT_PREFIX, segmentIndex, SEGMENT_SUFFIX));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+        flushedPosition = 0;
+    }
+
+    private List<Path> segments() throws IOException {
+        List<Path> paths = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+            }).sorted().forEach(paths::add);
+        }
+        return paths;
+    }
+
+    private static long indexOf(Path segmentPath) {
+        String name = segmentPath.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    @Override
+    public void close() {
+        flusher.shutdown();
+        synchronized (this) {
+            try {
+                writePending();
+            } catch (IOException e) {
+                log.error("Could not write game journal records", e);
+            }
+            if (segment != null) {
+                segment.force();
+                segment = null;
+            }
+        }
+    }
+}
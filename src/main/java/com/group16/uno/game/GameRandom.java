@@ -0,0 +1,61 @@
+package com.group16.uno.game;
+
+import java.util.List;
+
+/**
+ * SplitMix64 generator (the algorithm behind java.util.SplittableRandom) whose whole state
+ * is a single long. A game seeded with it can be reproduced from the seed alone, and its
+ * current position can be saved and restored with getState() and new GameRandom(state).
+ * Not thread safe; each game owns one and only touches it from its room's mailbox.
+ */
+public final class GameRandom {
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private long state;
+
+    public GameRandom(long seed) {
+        this.state = seed;
+    }
+
+    public long getState() {
+        return state;
+    }
+
+    public long nextLong() {
+        long z = (state += GOLDEN_GAMMA);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // Uniform in [0, bound), using a multiply instead of a division (Lemire's method)
+    public int nextInt(int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("bound must be positive");
+        }
+        long product = (nextLong() >>> 32) * bound;
+        long low = product & 0xFFFFFFFFL;
+        if (low < bound) {
+            long threshold = (0x100000000L - bound) % bound;
+            while (low < threshold) {
+                product = (nextLong() >>> 32) * bound;
+                low = product & 0xFFFFFFFFL;
+            }
+        }
+        return (int) (product >>> 32);
+    }
+
+    // A new generator for an independent stream, e.g. one per simulated game
+    public GameRandom split() {
+        return new GameRandom(nextLong());
+    }
+
+    // In-place Fisher-Yates shuffle
+    public <T> void shuffle(List<T> list) {
+        for (int i = list.size() - 1; i > 0; i--) {
+            int j = nextInt(i + 1);
+            list.set(j, list.set(i, list.get(j)));
+        }
+    }
+}
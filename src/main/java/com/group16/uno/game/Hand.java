@@ -0,0 +1,100 @@
+package com.group16.uno.game;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * A player's hand stored as a count per card face, plus per-face, per-color and
+ * per-value presence bitmasks. Adding, removing one copy and the "do I hold a card of this
+ * color/value" checks used by the move rules are all constant time.
+ */
+public final class Hand {
+
+    private final int[] faceCounts = new int[Cards.FACE_COUNT];
+    private final int[] colorCounts = new int[Cards.BLACK + 1];
+    private final int[] valueCounts = new int[Cards.WILD_DRAW_FOUR_VALUE + 1];
+    private int colorMask;
+    private int valueMask;
+    private long faceMask;
+    private int size;
+
+    public void add(int face) {
+        if (faceCounts[face]++ == 0) faceMask |= Cards.bit(face);
+        int color = Cards.color(face);
+        int value = Cards.value(face);
+        if (colorCounts[color]++ == 0) colorMask |= 1 << color;
+        if (valueCounts[value]++ == 0) valueMask |= 1 << value;
+        size++;
+    }
+
+    // Removes exactly one copy of the face; returns false if the hand holds none
+    public boolean remove(int face) {
+        if (faceCounts[face] == 0) {
+            return false;
+        }
+        if (--faceCounts[face] == 0) faceMask &= ~Cards.bit(face);
+        int color = Cards.color(face);
+        int value = Cards.value(face);
+        if (--colorCounts[color] == 0) colorMask &= ~(1 << color);
+        if (--valueCounts[value] == 0) valueMask &= ~(1 << value);
+        size--;
+        return true;
+    }
+
+    public int count(int face) { return faceCounts[face]; }
+    public boolean contains(int face) { return faceCounts[face] > 0; }
+    public boolean hasColor(int color) { return (colorMask & (1 << color)) != 0; }
+    public int colorCount(int color) { return colorCounts[color]; }
+    public boolean hasValue(int value) { return (valueMask & (1 << value)) != 0; }
+    public int colorMask() { return colorMask; }
+    public int valueMask() { return valueMask; }
+    // Set of faces held at least once, see Cards.bit()
+    public long faceMask() { return faceMask; }
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+
+    // Face ids of every card in the hand, one entry per copy, ordered by face id
+    public int[] toArray() {
+        int[] faces = new int[size];
+        int i = 0;
+        for (int face = 0; face < Cards.FACE_COUNT; face++) {
+            for (int c = faceCounts[face]; c > 0; c--) {
+                faces[i++] = face;
+            }
+        }
+        return faces;
+    }
+
+    // Snapshot form: [short size][one byte per card, ordered by face id]
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeShort(size);
+        for (int face = 0; face < Cards.FACE_COUNT; face++) {
+            for (int c = faceCounts[face]; c > 0; c--) {
+                out.writeByte(face);
+            }
+        }
+    }
+
+    public static Hand readFrom(DataInput in) throws IOException {
+        Hand hand = new Hand();
+        for (int i = in.readShort(); i > 0; i--) {
+            int face = in.readByte();
+            if (face < 0 || face >= Cards.FACE_COUNT) {
+                throw new IOException("Unknown card face " + face);
+            }
+            hand.add(face);
+        }
+        return hand;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int face : toArray()) {
+            if (sb.length() > 1) sb.append(", ");
+            sb.append(Cards.name(face));
+        }
+        return sb.append(']').toString();
+    }
+}
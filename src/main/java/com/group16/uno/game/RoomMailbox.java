@@ -0,0 +1,111 @@
+package com.group16.uno.game;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Single-writer command queue for one game room.
+ * Commands submitted from any thread run one at a time, in submission order,
+ * on a worker of the shared executor. Different rooms drain in parallel,
+ * so room state needs no locking as long as it is only touched from its mailbox.
+ * A retired mailbox closes once its queue drains and turns away later commands,
+ * which then go to a fresh mailbox that can only start after this one is done.
+ */
+public final class RoomMailbox implements Runnable {
+
+    private static final Logger log = LoggerFactory.getLogger(RoomMailbox.class);
+
+    // Commands run per turn on a worker before the room yields it to other rooms
+    private static final int BATCH_SIZE = 64;
+
+    private final Queue<Runnable> commands = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+    private final Executor executor;
+    private final Consumer<RoomMailbox> onClosed;
+    private volatile boolean retiring;
+    // Guarded by this
+    private boolean closed;
+
+    public RoomMailbox(Executor executor) {
+        this(executor, mailbox -> { });
+    }
+
+    public RoomMailbox(Executor executor, Consumer<RoomMailbox> onClosed) {
+        this.executor = executor;
+        this.onClosed = onClosed;
+    }
+
+    // Returns false if the mailbox has closed and the command was not queued
+    public boolean submit(Runnable command) {
+        synchronized (this) {
+            if (closed) {
+                return false;
+            }
+            commands.add(command);
+        }
+        schedule();
+        return true;
+    }
+
+    // Closes the mailbox after the commands queued so far, and any that arrive before it drains, have run
+    public void retire() {
+        retiring = true;
+        schedule();
+    }
+
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+
+    public int pendingCommands() {
+        return commands.size();
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            executor.execute(this);
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                Runnable command = commands.poll();
+                if (command == null) {
+                    break;
+                }
+                try {
+                    command.run();
+                } catch (RuntimeException e) {
+                    log.error("Room command failed", e);
+                }
+            }
+        } finally {
+            // Close while this run still owns the room, so no command of it can be in flight
+            if (retiring && close()) {
+                onClosed.accept(this);
+            } else {
+                scheduled.set(false);
+                // A command, or a retire that missed the check above, may have arrived after the last poll
+                if (!commands.isEmpty() || retiring) {
+                    schedule();
+                }
+            }
+        }
+    }
+
+    private synchronized boolean close() {
+        if (!commands.isEmpty()) {
+            return false;
+        }
+        closed = true;
+        return true;
+    }
+}
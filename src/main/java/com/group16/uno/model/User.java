@@ -4,15 +4,24 @@ import jakarta.persistence.*;
 
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import java.time.Instant;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 
 @Entity
 @Table(name = "users", uniqueConstraints = {@UniqueConstraint(columnNames = "username")})
+// Second-level cached; READ_WRITE updates the cached copy when a change such as a new password commits
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
+@NaturalIdCache(region = "users-by-username")
 public class User implements UserDetails {
 
     @Setter
@@ -23,6 +32,7 @@ public class User implements UserDetails {
 
     @Setter
     @Getter
+    @NaturalId
     @Column(nullable = false, unique = true)
     private String username;
 
@@ -34,6 +44,12 @@ public class User implements UserDetails {
     @Column(nullable = false)
     private String hashed_password;
 
+    // JWTs issued before this are rejected; null until the password is first changed
+    @Setter
+    @Getter
+    @Column(name = "password_changed_at")
+    private Instant passwordChangedAt;
+
 
     @OneToMany
     @JoinColumn(name="user_id")
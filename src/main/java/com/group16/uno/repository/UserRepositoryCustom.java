@@ -0,0 +1,10 @@
+package com.group16.uno.repository;
+
+import com.group16.uno.model.User;
+
+import java.util.Optional;
+
+public interface UserRepositoryCustom {
+    // Resolved through the natural-id cache, so repeat lookups skip the database
+    Optional<User> findByUsername(String username);
+}
@@ -0,0 +1,302 @@
+package com.group16.uno.service;
+
+import com.group16.uno.game.Cards;
+import com.group16.uno.game.GameEventListener;
+import com.group16.uno.game.GameJournal;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Writes every accepted game command to the on-disk GameJournal and rebuilds
+ * in-progress games from it on startup, before the application accepts connections.
+ * Replay continues from the games GameSnapshotService restored: each record carries the
+ * game version it produced, and records the snapshot already contains are skipped.
+ * With snapshots on, each snapshot deletes the segments it covers. Without them, segments
+ * are deleted once every game that wrote to them has been removed.
+ */
+@Service
+public class GameJournalService {
+
+    private static final Logger log = LoggerFactory.getLogger(GameJournalService.class);
+
+    static final byte START = 1;
+    static final byte PLAY = 2;
+    static final byte DRAW = 3;
+    static final byte FORCED_DRAW = 4;
+    static final byte REMOVED = 5;
+
+    private static final int MAX_RECORD_SIZE = 4096;
+    private static final ThreadLocal<ByteBuffer> SCRATCH = ThreadLocal.withInitial(() -> ByteBuffer.allocate(MAX_RECORD_SIZE));
+
+    private final GameStateService gameStateService;
+    private final GameRoomService gameRoomService;
+    private final GameSnapshotService gameSnapshotService;
+
+    @Value("${game.journal.enabled:false}")
+    private boolean enabled;
+
+    @Value("${game.journal.dir:data/journal}")
+    private String directory;
+
+    @Value("${game.journal.segment-size:16777216}")
+    private int segmentSize;
+
+    @Value("${game.journal.flush-interval-ms:5}")
+    private long flushIntervalMs;
+
+    private GameJournal journal;
+
+    // Oldest segment each live game may have records in; older segments only hold removed games
+    private final Map<String, Long> firstSegments = new ConcurrentHashMap<>();
+
+    public GameJournalService(GameStateService gameStateService, GameRoomService gameRoomService,
+                              GameSnapshotService gameSnapshotService) {
+        this.gameStateService = gameStateService;
+        this.gameRoomService = gameRoomService;
+        this.gameSnapshotService = gameSnapshotService;
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        open(Path.of(directory), segmentSize, flushIntervalMs);
+    }
+
+    void open(Path journalDirectory, int journalSegmentSize, long flushInterval) throws IOException {
+        journal = new GameJournal(journalDirectory, journalSegmentSize, flushInterval);
+        int recovered = recover();
+        gameStateService.setEventListenerFactory(RoomRecorder::new);
+        gameSnapshotService.attachJournal(journal);
+        trim();
+        log.info("Recovered {} games from the game journal.", recovered);
+    }
+
+    private int recover() throws IOException {
+        // Start from whatever the snapshot restored
+        Map<String, GameStateService.MultiplayerGameState> games = new LinkedHashMap<>(gameStateService.getAllGames());
+        Map<String, List<String>> lobbies = new LinkedHashMap<>();
+        journal.replay(gameSnapshotService.getRestoredJournalSegment(), record -> {
+            String roomId = null;
+            try {
+                byte type = record.get();
+                roomId = readString(record);
+                int version = record.getInt();
+                apply(type, roomId, version, record, games, lobbies);
+            } catch (RuntimeException e) {
+                // A command that no longer applies means the game's history is unusable
+                log.warn("Dropping game {} during journal replay: {}", roomId, e.getMessage());
+                games.remove(roomId);
+            }
+        });
+
+        int recovered = 0;
+        for (Map.Entry<String, GameStateService.MultiplayerGameState> entry : games.entrySet()) {
+            String roomId = entry.getKey();
+            GameStateService.MultiplayerGameState game = entry.getValue();
+            if (game.isGameOver()) {
+                gameStateService.removeGame(roomId);
+                continue;
+            }
+            game.setEventListener(new RoomRecorder(roomId));
+            // Where its records start is not known, so it keeps the whole journal until it is removed
+            firstSegments.put(roomId, 0L);
+            gameStateService.restoreGame(roomId, game);
+            // The creator joins first, so the original player list starts with them
+            List<String> players = lobbies.get(roomId);
+            if (players != null) {
+                gameRoomService.restoreRoom(roomId, players.get(0), players, game);
+            }
+            recovered++;
+        }
+        // Games the journal removed after the snapshot was taken
+        for (String roomId : new ArrayList<>(gameStateService.getAllGames().keySet())) {
+            if (!games.containsKey(roomId)) {
+                gameStateService.removeGame(roomId);
+            }
+        }
+        return recovered;
+    }
+
+    private static void apply(byte type, String roomId, int version, ByteBuffer record,
+                              Map<String, GameStateService.MultiplayerGameState> games,
+                              Map<String, List<String>> lobbies) {
+        if (type == START) {
+            long seed = record.getLong();
+            int count = record.get();
+            List<String> players = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                players.add(readString(record));
+            }
+            GameStateService.MultiplayerGameState game = new GameStateService.MultiplayerGameState(seed);
+            game.startGame(players);
+            games.put(roomId, game);
+            lobbies.put(roomId, players);
+            return;
+        }
+        if (type == REMOVED) {
+            games.remove(roomId);
+            lobbies.remove(roomId);
+            return;
+        }
+        GameStateService.MultiplayerGameState game = games.get(roomId);
+        if (game == null || version <= game.getVersion()) {
+            // Already part of the snapshot
+            return;
+        }
+        if (version != game.getVersion() + 1) {
+            throw new IllegalStateException("Journal is missing commands before version " + version);
+        }
+        String player = game.getPlayerOrder().get(record.get());
+        switch (type) {
+            case PLAY:
+                int card = record.get();
+                int color = record.get();
+                game.playCard(player, card, Cards.colorName(color));
+                break;
+            case DRAW:
+                game.drawAndEndTurn(player, record.getShort());
+                break;
+            case FORCED_DRAW:
+                game.handleForcedDraw(player);
+                break;
+            default:
+                throw new IllegalStateException("Unknown journal record type " + type);
+        }
+    }
+
+    private static void writeString(ByteBuffer buffer, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Writes queued records now instead of at the next flush interval
+    void flush() {
+        journal.flush();
+    }
+
+    // Deletes the segments that only hold records of removed games; snapshots trim on their own
+    private synchronized void trim() {
+        if (gameSnapshotService.isEnabled()) {
+            return;
+        }
+        long keepFrom = journal.currentSegment();
+        for (long first : firstSegments.values()) {
+            keepFrom = Math.min(keepFrom, first);
+        }
+        try {
+            journal.deleteSegmentsBefore(keepFrom);
+        } catch (IOException e) {
+            log.warn("Could not delete old game journal segments: {}", e.getMessage());
+        }
+    }
+
+    // Journal writer for one room; called from that room's mailbox
+    private class RoomRecorder implements GameEventListener {
+        private final String roomId;
+
+        RoomRecorder(String roomId) {
+            this.roomId = roomId;
+        }
+
+        private ByteBuffer begin(byte type, int version) {
+            ByteBuffer buffer = SCRATCH.get();
+            buffer.clear();
+            buffer.put(type);
+            writeString(buffer, roomId);
+            buffer.putInt(version);
+            return buffer;
+        }
+
+        private void commit(ByteBuffer buffer) {
+            buffer.flip();
+            try {
+                journal.append(buffer);
+            } catch (RuntimeException e) {
+                // Losing durability must not stop the game itself
+                log.error("Could not journal a command of room {}", roomId, e);
+            }
+        }
+
+        @Override
+        public void gameStarted(int version, long seed, List<String> players) {
+            firstSegments.putIfAbsent(roomId, journal.currentSegment());
+            ByteBuffer buffer = begin(START, version);
+            buffer.putLong(seed);
+            buffer.put((byte) players.size());
+            for (String player : players) {
+                writeString(buffer, player);
+            }
+            commit(buffer);
+        }
+
+        @Override
+        public void cardPlayed(int version, int seat, int card, int color) {
+            ByteBuffer buffer = begin(PLAY, version);
+            buffer.put((byte) seat);
+            buffer.put((byte) card);
+            buffer.put((byte) color);
+            commit(buffer);
+        }
+
+        @Override
+        public void cardsDrawn(int version, int seat, int count) {
+            // A count that does not survive the round trip would replay as a different game
+            if (count < 0 || count > Short.MAX_VALUE) {
+                throw new IllegalArgumentException("Draw count " + count + " cannot be journaled");
+            }
+            ByteBuffer buffer = begin(DRAW, version);
+            buffer.put((byte) seat);
+            buffer.putShort((short) count);
+            commit(buffer);
+        }
+
+        @Override
+        public void forcedDraw(int version, int seat) {
+            ByteBuffer buffer = begin(FORCED_DRAW, version);
+            buffer.put((byte) seat);
+            commit(buffer);
+        }
+
+        @Override
+        public void gameRemoved() {
+            commit(begin(REMOVED, 0));
+            if (firstSegments.remove(roomId) != null) {
+                trim();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        // The final snapshot must roll the journal while it is still attached, or it records segment 0
+        gameSnapshotService.close();
+        gameStateService.setEventListenerFactory(null);
+        gameSnapshotService.attachJournal(null);
+        if (journal != null) {
+            journal.close();
+        }
+    }
+}
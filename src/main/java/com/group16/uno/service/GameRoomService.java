@@ -1,99 +1,129 @@
 package com.group16.uno.service;
 
 import java.util.*;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
 import org.springframework.stereotype.Service;
 
 @Service
 public class GameRoomService {
 
-    private Map<String, GameRoom> gameRooms = new HashMap<>();
-    private final Lock lock = new ReentrantLock();
+    // Crockford base32 without I, L, O and U, so ids are easy to read out and type
+    private static final char[] ROOM_ID_ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int ROOM_ID_LENGTH = 6;
+
+    // Join and leave go through compute* so each room is updated atomically without a global lock
+    private final ConcurrentMap<String, GameRoom> gameRooms = new ConcurrentHashMap<>();
 
     public String createGameRoom(String creatorId) {
-        lock.lock();
-        try {
-            String roomId = UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-            gameRooms.put(roomId, new GameRoom(roomId, creatorId));
-            return roomId;
-        } finally {
-            lock.unlock();
+        while (true) {
+            String roomId = nextRoomId();
+            if (gameRooms.putIfAbsent(roomId, new GameRoom(roomId, creatorId)) == null) {
+                return roomId;
+            }
         }
     }
 
+    private static String nextRoomId() {
+        int bits = ThreadLocalRandom.current().nextInt(1 << (5 * ROOM_ID_LENGTH));
+        char[] id = new char[ROOM_ID_LENGTH];
+        for (int i = 0; i < ROOM_ID_LENGTH; i++) {
+            id[i] = ROOM_ID_ALPHABET[bits & 31];
+            bits >>>= 5;
+        }
+        return new String(id);
+    }
+
     public GameRoom getGameRoom(String roomId) {
-        return gameRooms.get(roomId);
+        return roomId == null ? null : gameRooms.get(roomId);
     }
 
-    public void addPlayerToRoom(String roomId, String playerId) {
-        lock.lock();
-        try {
-            GameRoom room = gameRooms.get(roomId);
-            if (room != null && room.players.size() < 4) {
-                room.addPlayer(playerId);
-            }
-        } finally {
-            lock.unlock();
-        }
+    public int getRoomCount() {
+        return gameRooms.size();
+    }
+
+    public Collection<GameRoom> getAllRooms() {
+        return Collections.unmodifiableCollection(gameRooms.values());
+    }
+
+    // Returns true if the player is in the room afterwards and was not before
+    public boolean addPlayerToRoom(String roomId, String playerId) {
+        boolean[] added = {false};
+        gameRooms.computeIfPresent(roomId, (id, room) -> {
+            added[0] = room.addPlayer(playerId);
+            return room;
+        });
+        return added[0];
     }
 
     public boolean removePlayerFromRoom(String roomId, String playerId) {
-        lock.lock();
-        try {
-            GameRoom room = gameRooms.get(roomId);
-            if (room != null) {
-                boolean removed = room.removePlayer(playerId);
-                if (room.players.isEmpty()) {
-                    gameRooms.remove(roomId);
-                }
-                return removed;
-            }
-            return false;
-        } finally {
-            lock.unlock();
+        boolean[] removed = {false};
+        gameRooms.computeIfPresent(roomId, (id, room) -> {
+            removed[0] = room.removePlayer(playerId);
+            return room.players.isEmpty() ? null : room;
+        });
+        return removed[0];
+    }
+
+    // Drops a room whose game has finished, whoever is still seated in it
+    public boolean removeRoom(String roomId) {
+        return roomId != null && gameRooms.remove(roomId) != null;
+    }
+
+    // Recreates the lobby of a game rebuilt during recovery, with every player ready
+    public void restoreRoom(String roomId, String creatorId, List<String> players, GameStateService.MultiplayerGameState game) {
+        GameRoom room = new GameRoom(roomId, creatorId);
+        for (String player : players) {
+            room.addPlayer(player);
+            room.setPlayerReady(player, true);
         }
+        room.startGame(creatorId, game);
+        gameRooms.put(roomId, room);
+    }
+
+    // Puts back a lobby read from a snapshot
+    public void restoreRoom(GameRoom room) {
+        gameRooms.put(room.getRoomId(), room);
     }
 
     // Additional methods for managing players and game state
 
+    /**
+     * Lobby record for a room: who is in it, who is ready and who created it.
+     * All card play lives in the room's GameStateService.MultiplayerGameState once the game starts.
+     */
     public static class GameRoom {
-        private String roomId;
-        private String creatorId;
-        private List<String> players = new ArrayList<>();
-        private Map<String, List<Card>> playerHands = new HashMap<>();
-        private List<Card> deck = new ArrayList<>();
-        private List<Card> discardPile = new ArrayList<>();
-        private int currentPlayerIndex = 0;
-        private String currentColor;
-        private boolean clockwise = true;
-        private int drawStack = 0;
-        private boolean gameStarted = false;
-        private Map<String, Boolean> playerReady = new HashMap<>();
+        private final String roomId;
+        private final String creatorId;
+        private final List<String> players = new CopyOnWriteArrayList<>();
+        private final Map<String, Boolean> playerReady = new ConcurrentHashMap<>();
+        private volatile GameStateService.MultiplayerGameState game;
 
         public GameRoom(String roomId, String creatorId) {
             this.roomId = roomId;
             this.creatorId = creatorId;
-            initializeDeck();
         }
 
-        public void addPlayer(String playerId) {
-            if (players.size() < 4 && !players.contains(playerId)) {
+        public boolean addPlayer(String playerId) {
+            if (playerId != null && players.size() < 4 && !players.contains(playerId)) {
                 players.add(playerId);
-                playerHands.put(playerId, new ArrayList<>());
                 playerReady.put(playerId, false);
+                return true;
             }
+            return false;
         }
 
         public boolean removePlayer(String playerId) {
-            playerHands.remove(playerId);
+            if (playerId == null) return false;
             playerReady.remove(playerId);
             return players.remove(playerId);
         }
 
         public void setPlayerReady(String playerId, boolean ready) {
-            if (playerReady.containsKey(playerId)) {
-                playerReady.put(playerId, ready);
+            if (playerId != null) {
+                playerReady.replace(playerId, ready);
             }
         }
 
@@ -105,202 +135,35 @@ public class GameRoomService {
             return new HashMap<>(playerReady);
         }
 
-        public void startGame(String playerId) {
+        // Attaches the engine instance that GameStateService holds for this room
+        public void startGame(String playerId, GameStateService.MultiplayerGameState game) {
             if (!playerId.equals(creatorId)) {
                 throw new IllegalStateException("Only the room creator can start the game.");
             }
-            if (players.size() >= 2 && !gameStarted) {
-                gameStarted = true;
-                shuffleDeck();
-                
-                // Deal 7 cards to each player
-                for (String player : players) {
-                    List<Card> hand = new ArrayList<>();
-                    for (int i = 0; i < 7; i++) {
-                        hand.add(drawCard());
-                    }
-                    playerHands.put(player, hand);
-                }
-                
-                // Set first card (not Wild Draw Four)
-                Card firstCard;
-                do {
-                    firstCard = drawCard();
-                } while (firstCard.getValue().equals("Wild Draw Four"));
-                
-                discardPile.add(firstCard);
-                currentColor = firstCard.getColor();
+            if (players.size() < 2) {
+                throw new IllegalStateException("At least 2 players required");
             }
+            this.game = game;
         }
 
-        public boolean playCard(String playerId, String cardValue, String cardColor, String chosenColor) {
-            if (!gameStarted || !players.get(currentPlayerIndex).equals(playerId)) {
-                return false;
-            }
-            
-            List<Card> playerHand = playerHands.get(playerId);
-            Card cardToPlay = null;
-            
-            // Find the card in player's hand
-            for (Card card : playerHand) {
-                if (card.getValue().equals(cardValue) && card.getColor().equals(cardColor)) {
-                    cardToPlay = card;
-                    break;
-                }
-            }
-            
-            if (cardToPlay == null || !isValidPlay(cardToPlay)) {
-                return false;
-            }
-            
-            // Remove card from player's hand
-            playerHand.remove(cardToPlay);
-            
-            // Add to discard pile
-            discardPile.add(cardToPlay);
-            
-            // Handle special cards
-            handleSpecialCard(cardToPlay, chosenColor);
-            
-            // Move to next player
-            moveToNextPlayer();
-            
-            return true;
-        }
-
-        public boolean isValidPlay(Card card) {
-            if (discardPile.isEmpty()) return true;
-            Card topCard = discardPile.get(discardPile.size() - 1);
-            if (drawStack > 0) {
-                if (topCard.getValue().equals("Draw Two")) {
-                    return card.getValue().equals("Draw Two");
-                }
-                if (topCard.getValue().equals("Wild Draw Four")) {
-                    return card.getValue().equals("Wild Draw Four");
-                }
-                return false;
-            }
-            return card.getValue().equals("Wild") || 
-                   card.getValue().equals("Wild Draw Four") ||
-                   card.getColor().equals(currentColor) || 
-                   card.getValue().equals(topCard.getValue());
-        }
-
-        private void handleSpecialCard(Card card, String chosenColor) {
-            String value = card.getValue();
-            
-            switch (value) {
-                case "Skip":
-                    moveToNextPlayer(); // Skip one more time
-                    break;
-                case "Reverse":
-                    clockwise = !clockwise;
-                    if (players.size() == 2) {
-                        moveToNextPlayer(); // In 2-player game, reverse acts like skip
-                    }
-                    break;
-                case "Draw Two":
-                    drawStack += 2;
-                    break;
-                case "Wild":
-                    currentColor = chosenColor;
-                    break;
-                case "Wild Draw Four":
-                    currentColor = chosenColor;
-                    drawStack = 4;
-                    break;
-                default:
-                    currentColor = card.getColor();
-            }
-        }
-
-        private void moveToNextPlayer() {
-            if (clockwise) {
-                currentPlayerIndex = (currentPlayerIndex + 1) % players.size();
-            } else {
-                currentPlayerIndex = (currentPlayerIndex - 1 + players.size()) % players.size();
-            }
-        }
-
-        private Card drawCard() {
-            if (deck.isEmpty()) {
-                // Reshuffle discard pile back into deck
-                if (discardPile.size() > 1) {
-                    Card topCard = discardPile.remove(discardPile.size() - 1);
-                    deck.addAll(discardPile);
-                    discardPile.clear();
-                    discardPile.add(topCard);
-                    shuffleDeck();
-                }
-            }
-            return deck.isEmpty() ? null : deck.remove(0);
-        }
-
-        private void shuffleDeck() {
-            Collections.shuffle(deck);
-        }
-
-        private void initializeDeck() {
-            String[] colors = {"red", "yellow", "green", "blue"};
-            String[] values = {"0", "1", "2", "3", "4", "5", "6", "7", "8", "9", "Skip", "Reverse", "Draw Two"};
-            
-            // Add numbered and action cards (2 of each except 0)
-            for (String color : colors) {
-                for (String value : values) {
-                    deck.add(new Card(value, color));
-                    if (!value.equals("0")) {
-                        deck.add(new Card(value, color));
-                    }
-                }
-            }
-            
-            // Add Wild cards
-            for (int i = 0; i < 4; i++) {
-                deck.add(new Card("Wild", "black"));
-                deck.add(new Card("Wild Draw Four", "black"));
-            }
-            
-            shuffleDeck();
+        // Used when restoring a room, where the start checks already passed before the crash
+        void attachGame(GameStateService.MultiplayerGameState game) {
+            this.game = game;
         }
 
         // Getters
         public String getRoomId() { return roomId; }
         public String getCreatorId() { return creatorId; }
         public List<String> getPlayers() { return new ArrayList<>(players); }
-        public String getCurrentPlayer() { 
-            return players.isEmpty() ? null : players.get(currentPlayerIndex); 
-        }
-        public Card getTopCard() { 
-            return discardPile.isEmpty() ? null : discardPile.get(discardPile.size() - 1); 
-        }
-        public String getCurrentColor() { return currentColor; }
-        public boolean isClockwise() { return clockwise; }
-        public int getDrawStack() { return drawStack; }
-        public boolean isGameStarted() { return gameStarted; }
-        public int getPlayerHandSize(String playerId) {
-            List<Card> hand = playerHands.get(playerId);
-            return hand != null ? hand.size() : 0;
-        }
-        public List<Card> getPlayerHand(String playerId) {
-            return playerHands.getOrDefault(playerId, new ArrayList<>());
-        }
-    }
-
-    public static class Card {
-        private String value;
-        private String color;
-
-        public Card(String value, String color) {
-            this.value = value;
-            this.color = color;
-        }
-
-        public String getValue() { return value; }
-        public String getColor() { return color; }
-        
-        @Override
-        public String toString() {
-            return color + "_" + value;
+        public GameStateService.MultiplayerGameState getGame() { return game; }
+        public boolean isGameStarted() { return game != null; }
+        public String getCurrentPlayer() {
+            GameStateService.MultiplayerGameState current = game;
+            if (current != null) {
+                return current.getCurrentPlayerName();
+            }
+            // Before the game starts the creator is first in line
+            return players.isEmpty() ? null : players.get(0);
         }
     }
 } 
\ No newline at end of file
@@ -0,0 +1,305 @@
+package com.group16.uno.service;
+
+import com.group16.uno.game.GameJournal;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Periodically writes every room and its game to a compact binary snapshot file, and loads
+ * the newest snapshot on startup, before the journal is replayed and before STOMP accepts connections.
+ *
+ * A snapshot file is [int magic][byte format][long journal segment][int room count][rooms...][int crc32].
+ * Every room is captured on its mailbox, so it is never read halfway through a command.
+ * When the journal is enabled it is rolled to a new segment before capturing; segments older
+ * than that are fully covered by the snapshot and are deleted once it is on disk.
+ */
+@Service
+public class GameSnapshotService {
+
+    private static final Logger log = LoggerFactory.getLogger(GameSnapshotService.class);
+
+    static final int MAGIC = 0x554E4F53; // "UNOS"
+    static final byte FORMAT = 3;
+    // Written before games carried their reshuffle count; still read, as the journal before it is gone
+    static final byte FORMAT_WITHOUT_RESHUFFLE_COUNT = 2;
+
+    private static final String FILE_PREFIX = "snapshot-";
+    private static final String FILE_SUFFIX = ".bin";
+    private static final int SNAPSHOTS_KEPT = 2;
+    private static final long CAPTURE_TIMEOUT_SECONDS = 10;
+
+    private final GameStateService gameStateService;
+    private final GameRoomService gameRoomService;
+
+    @Value("${game.snapshot.enabled:false}")
+    private boolean enabled;
+
+    @Value("${game.snapshot.dir:data/snapshots}")
+    private String directory;
+
+    @Value("${game.snapshot.interval-ms:30000}")
+    private long intervalMs;
+
+    private Path snapshotDirectory;
+    private ScheduledExecutorService scheduler;
+    private volatile GameJournal journal;
+    private long restoredJournalSegment;
+    private boolean closed;
+
+    public GameSnapshotService(GameStateService gameStateService, GameRoomService gameRoomService) {
+        this.gameStateService = gameStateService;
+        this.gameRoomService = gameRoomService;
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        open(Path.of(directory), intervalMs);
+    }
+
+    void open(Path directory, long interval) throws IOException {
+        snapshotDirectory = directory;
+        Files.createDirectories(directory);
+        int restored = loadLatest();
+        log.info("Restored {} rooms from the latest game snapshot.", restored);
+        if (interval > 0) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "game-snapshotter");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(() -> {
+                try {
+                    snapshot();
+                } catch (IOException | RuntimeException e) {
+                    log.error("Game snapshot failed", e);
+                }
+            }, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public boolean isEnabled() {
+        return snapshotDirectory != null;
+    }
+
+    // First journal segment not covered by the restored snapshot; replay starts there
+    public long getRestoredJournalSegment() {
+        return restoredJournalSegment;
+    }
+
+    // Lets snapshots roll and trim the journal; null detaches it
+    public void attachJournal(GameJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Captures every room and writes a new snapshot file.
+     * Returns false, writing nothing, if some room could not be captured in time.
+     */
+    public boolean snapshot() throws IOException {
+        GameJournal currentJournal = journal;
+        long journalSegment = currentJournal != null ? currentJournal.rollover() : 0;
+
+        List<GameRoomService.GameRoom> rooms = new ArrayList<>(gameRoomService.getAllRooms());
+        byte[][] records = new byte[rooms.size()][];
+        CountDownLatch captured = new CountDownLatch(rooms.size());
+        for (int i = 0; i < rooms.size(); i++) {
+            GameRoomService.GameRoom room = rooms.get(i);
+            int slot = i;
+            Runnable capture = () -> {
+                try {
+                    records[slot] = encodeRoom(room);
+                } catch (IOException | RuntimeException e) {
+                    log.error("Could not capture room {} for the game snapshot", room.getRoomId(), e);
+                } finally {
+                    captured.countDown();
+                }
+            };
+            // Lobbies too: a game may be starting on the room's mailbox while the snapshot runs
+            gameStateService.execute(room.getRoomId(), capture);
+        }
+        try {
+            if (!captured.await(CAPTURE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("Skipping game snapshot: rooms did not respond in time.");
+                return false;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeByte(FORMAT);
+        out.writeLong(journalSegment);
+        out.writeInt(rooms.size());
+        for (byte[] record : records) {
+            if (record == null) {
+                log.warn("Skipping game snapshot: a room could not be captured.");
+                return false;
+            }
+            out.write(record);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+        out.writeInt((int) crc.getValue());
+
+        // Write under a temporary name and rename, so a crash never leaves a half-written snapshot
+        String name = String.format("%s%016d%s", FILE_PREFIX, System.currentTimeMillis(), FILE_SUFFIX);
+        Path temporary = snapshotDirectory.resolve(name + ".tmp");
+        Files.write(temporary, bytes.toByteArray());
+        Files.move(temporary, snapshotDirectory.resolve(name),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        List<Path> snapshots = snapshots();
+        for (int i = 0; i < snapshots.size() - SNAPSHOTS_KEPT; i++) {
+            Files.deleteIfExists(snapshots.get(i));
+        }
+        if (currentJournal != null) {
+            currentJournal.deleteSegmentsBefore(journalSegment);
+        }
+        return true;
+    }
+
+    private static byte[] encodeRoom(GameRoomService.GameRoom room) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeUTF(room.getRoomId());
+        out.writeUTF(room.getCreatorId());
+        List<String> players = room.getPlayers();
+        Map<String, Boolean> ready = room.getPlayerReadyStates();
+        out.writeByte(players.size());
+        for (String player : players) {
+            out.writeUTF(player);
+            out.writeBoolean(Boolean.TRUE.equals(ready.get(player)));
+        }
+        GameStateService.MultiplayerGameState game = room.getGame();
+        out.writeBoolean(game != null);
+        if (game != null) {
+            game.writeTo(out);
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    // Restores rooms from the newest readable snapshot, falling back to older ones
+    private int loadLatest() throws IOException {
+        List<Path> snapshots = snapshots();
+        for (int i = snapshots.size() - 1; i >= 0; i--) {
+            Path path = snapshots.get(i);
+            try {
+                return load(Files.readAllBytes(path));
+            } catch (IOException | RuntimeException e) {
+                log.warn("Ignoring unreadable game snapshot {}: {}", path.getFileName(), e.getMessage());
+            }
+        }
+        return 0;
+    }
+
+    private int load(byte[] data) throws IOException {
+        if (data.length < 4) {
+            throw new IOException("Snapshot is truncated");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, data.length - 4);
+        if ((int) crc.getValue() != ByteBuffer.wrap(data, data.length - 4, 4).getInt()) {
+            throw new IOException("Snapshot checksum mismatch");
+        }
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data, 0, data.length - 4));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a game snapshot");
+        }
+        byte format = in.readByte();
+        if (format != FORMAT && format != FORMAT_WITHOUT_RESHUFFLE_COUNT) {
+            throw new IOException("Unknown game snapshot format " + format);
+        }
+        long journalSegment = in.readLong();
+        int roomCount = in.readInt();
+
+        // Decode everything before touching the services, so a bad file restores nothing
+        List<GameRoomService.GameRoom> rooms = new ArrayList<>(roomCount);
+        for (int i = 0; i < roomCount; i++) {
+            GameRoomService.GameRoom room = new GameRoomService.GameRoom(in.readUTF(), in.readUTF());
+            int players = in.readByte();
+            for (int p = 0; p < players; p++) {
+                String player = in.readUTF();
+                room.addPlayer(player);
+                room.setPlayerReady(player, in.readBoolean());
+            }
+            if (in.readBoolean()) {
+                room.attachGame(GameStateService.MultiplayerGameState.readFrom(in, format != FORMAT_WITHOUT_RESHUFFLE_COUNT));
+            }
+            rooms.add(room);
+        }
+
+        for (GameRoomService.GameRoom room : rooms) {
+            if (room.getGame() != null) {
+                gameStateService.restoreGame(room.getRoomId(), room.getGame());
+            }
+            gameRoomService.restoreRoom(room);
+        }
+        restoredJournalSegment = journalSegment;
+        return rooms.size();
+    }
+
+    private List<Path> snapshots() throws IOException {
+        List<Path> paths = new ArrayList<>();
+        try (Stream<Path> files = Files.list(snapshotDirectory)) {
+            files.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX);
+            }).sorted().forEach(paths::add);
+        }
+        return paths;
+    }
+
+    /**
+     * Stops periodic snapshots and writes a last one, so the next start skips most of the journal.
+     * GameJournalService calls this before it detaches the journal, since Spring destroys it first;
+     * later calls do nothing.
+     */
+    @PreDestroy
+    public synchronized void close() {
+        if (snapshotDirectory == null || closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (scheduler != null) {
+                scheduler.shutdown();
+                scheduler.awaitTermination(CAPTURE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            }
+            snapshot();
+        } catch (IOException | RuntimeException e) {
+            log.error("Final game snapshot failed", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,146 +1,159 @@
 package com.group16.uno.service;
 
-import com.group16.uno.dto.CardDataDTO;
+import com.group16.uno.game.CardPile;
+import com.group16.uno.game.Cards;
+import com.group16.uno.game.GameEventListener;
+import com.group16.uno.game.GameRandom;
+import com.group16.uno.game.Hand;
+import com.group16.uno.game.RoomMailbox;
+import jakarta.annotation.PreDestroy;
 import org.springframework.stereotype.Service;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 @Service
 public class GameStateService {
     
     // Game State Structure for each room
+    // Cards are face ids from the Cards registry; CardDataDTO is only used at the JSON boundary.
     public static class MultiplayerGameState {
-        private List<CardDataDTO> deck;
-        private List<CardDataDTO> discardPile;
-        private Map<String, List<CardDataDTO>> playerHands; // username -> hand
+        private CardPile deck;
+        private CardPile discardPile;
+        private Map<String, Hand> playerHands; // username -> hand
         private List<String> playerOrder; // ordered list of usernames
         private int currentPlayerIndex;
         private boolean clockwise;
-        private String currentColor;
+        private int currentColor;
         private int drawStack;
-        private Random random;
+        private final long seed;
+        private GameRandom random;
         private int direction = 1;
         private boolean wildDrawFourChallenge = false;
         private String challengingPlayer = null;
         private String challengedPlayer = null;
         private boolean gameStarted = false;
+        private int version;
+        private int reshuffleCount;
+        private GameEventListener eventListener;
         
         public MultiplayerGameState() {
-            this.deck = new ArrayList<>();
-            this.discardPile = new ArrayList<>();
+            this(ThreadLocalRandom.current().nextLong());
+        }
+        
+        // The seed drives every shuffle, so a game can be rebuilt from its seed and accepted commands
+        public MultiplayerGameState(long seed) {
+            this.deck = new CardPile();
+            this.discardPile = new CardPile();
             this.playerHands = new HashMap<>();
             this.playerOrder = new ArrayList<>();
             this.clockwise = true;
+            this.currentColor = Cards.NONE;
             this.drawStack = 0;
-            this.random = new Random();
-            initializeDeck();
-        }
-        
-        private void initializeDeck() {
-            String[] colors = {"red", "yellow", "green", "blue"};
-            String[] values = {"0", "1", "2", "3", "4", "5", "6", "7", "8", "9", "Skip", "Reverse", "Draw Two"};
-            
-            // Add number and action cards (2 of each except 0)
-            for (String color : colors) {
-                for (String value : values) {
-                    deck.add(new CardDataDTO(value, color));
-                    if (!value.equals("0")) { // Only one 0 card per color
-                        deck.add(new CardDataDTO(value, color));
-                    }
-                }
-            }
-            
-            // Add Wild cards
-            for (int i = 0; i < 4; i++) {
-                deck.add(new CardDataDTO("Wild", "black"));
-                deck.add(new CardDataDTO("Wild Draw Four", "black"));
-            }
+            this.seed = seed;
+            this.random = new GameRandom(seed);
+            // 1 zero and 2 of every other colored card, 4 of each wild
+            deck.fillFullDeck();
         }
         
         public void startGame(List<String> players) {
             if (players.size() < 2) {
                 throw new IllegalStateException("At least 2 players required");
             }
+            // Every hand plus a non-wild first card must come out of one deck
+            int wilds = Cards.copies(Cards.WILD) + Cards.copies(Cards.WILD_DRAW_FOUR);
+            if (players.size() * 7 >= Cards.DECK_SIZE - wilds) {
+                throw new IllegalStateException("Too many players for one deck: " + players.size());
+            }
             
             this.playerOrder = new ArrayList<>(players);
-            Collections.shuffle(playerOrder); // Randomize player order
+            random.shuffle(playerOrder); // Randomize player order
             shuffleDeck();
             
             // Deal 7 cards to each player
             for (String player : playerOrder) {
-                List<CardDataDTO> hand = new ArrayList<>();
+                Hand hand = new Hand();
                 for (int j = 0; j < 7; j++) {
-                    hand.add(drawCard());
+                    hand.add(dealCard());
                 }
                 playerHands.put(player, hand);
             }
             
             // Draw first card for discard pile
-            CardDataDTO firstCard = drawCard();
-            while (firstCard.getValue().equals("Wild") || firstCard.getValue().equals("Wild Draw Four")) {
-                deck.add(firstCard);
+            int firstCard = dealCard();
+            while (Cards.isWild(firstCard)) {
+                deck.push(firstCard);
                 shuffleDeck();
-                firstCard = drawCard();
+                firstCard = dealCard();
             }
-            discardPile.add(firstCard);
-            currentColor = firstCard.getColor();
+            discardPile.push(firstCard);
+            currentColor = Cards.color(firstCard);
             currentPlayerIndex = 0;
             gameStarted = true;
+            version = 1;
+            if (eventListener != null) {
+                eventListener.gameStarted(version, seed, players);
+            }
+        }
+        
+        // Nothing has been discarded while dealing, so an empty deck cannot be refilled
+        private int dealCard() {
+            int card = drawCard();
+            if (card == Cards.NONE) {
+                throw new IllegalStateException("Deck ran out while dealing");
+            }
+            return card;
         }
         
         private void shuffleDeck() {
-            Collections.shuffle(deck, random);
+            deck.shuffle(random);
         }
         
-        public CardDataDTO drawCard() {
+        // Returns Cards.NONE when both deck and discard pile are exhausted
+        public int drawCard() {
             if (deck.isEmpty()) {
-                // Reshuffle discard pile into deck
-                if (discardPile.size() > 1) {
-                    CardDataDTO topCard = discardPile.remove(discardPile.size() - 1);
-                    deck.addAll(discardPile);
-                    discardPile.clear();
-                    discardPile.add(topCard);
+                // Recycle discard pile (except its top card) into deck in place
+                if (deck.recycleFrom(discardPile) > 0) {
                     shuffleDeck();
+                    reshuffleCount++;
                 }
             }
-            return deck.isEmpty() ? null : deck.remove(0);
+            return deck.pop();
         }
         
-        public boolean canPlayCard(CardDataDTO card, String playerName) {
-            CardDataDTO topCard = getTopCard();
+        public boolean canPlayCard(int card, String playerName) {
+            int topCard = getTopCard();
             
             if (drawStack > 0) {
-                if (topCard.getValue().equals("Draw Two")) {
-                    return card.getValue().equals("Draw Two");
-                }
-                if (topCard.getValue().equals("Wild Draw Four")) {
-                    return card.getValue().equals("Wild Draw Four");
+                if (topCard == Cards.WILD_DRAW_FOUR || Cards.value(topCard) == Cards.DRAW_TWO) {
+                    return Cards.value(card) == Cards.value(topCard);
                 }
                 return false;
             }
             
-            if (card.getValue().equals("Wild Draw Four")) {
-                // Check if player has other playable cards
-                List<CardDataDTO> playerHand = playerHands.get(playerName);
-                if (playerHand != null) {
-                    for (CardDataDTO handCard : playerHand) {
-                        if (handCard != card && handCard.getColor().equals(currentColor)) {
-                            return false; // Can't play Wild Draw Four if has matching color
-                        }
-                    }
-                }
-                return true;
+            if (card == Cards.WILD_DRAW_FOUR) {
+                // Can't play Wild Draw Four if the player has a card matching the current color
+                Hand playerHand = playerHands.get(playerName);
+                return playerHand == null || !playerHand.hasColor(currentColor);
             }
             
-            if (card.getValue().equals("Wild")) {
+            if (card == Cards.WILD) {
                 return true;
             }
             
-            return card.getColor().equals(currentColor) || card.getValue().equals(topCard.getValue());
+            return Cards.color(card) == currentColor || Cards.value(card) == Cards.value(topCard);
         }
         
-        public void playCard(String playerName, CardDataDTO card, String chosenColor) {
-            if (!getCurrentPlayerName().equals(playerName)) {
+        public void playCard(String playerName, int card, String chosenColor) {
+            if (!playerName.equals(getCurrentPlayerName())) {
                 throw new IllegalStateException("Not your turn");
             }
             
@@ -148,25 +161,27 @@ public class GameStateService {
                 throw new IllegalStateException("Invalid card play");
             }
             
-            // Remove card from player's hand
-            List<CardDataDTO> playerHand = playerHands.get(playerName);
-            playerHand.removeIf(c -> c.getValue().equals(card.getValue()) && c.getColor().equals(card.getColor()));
-            
-            discardPile.add(card);
+            int newColor = Cards.isWild(card) ? Cards.parseColor(chosenColor) : Cards.color(card);
+            if (newColor < 0 || newColor >= Cards.COLOR_COUNT) {
+                throw new IllegalStateException("Invalid color: " + chosenColor);
+            }
             
-            if (card.getValue().equals("Wild") || card.getValue().equals("Wild Draw Four")) {
-                currentColor = chosenColor;
-            } else {
-                currentColor = card.getColor();
+            // Remove exactly one copy of the card from player's hand
+            Hand playerHand = playerHands.get(playerName);
+            if (!playerHand.remove(card)) {
+                throw new IllegalStateException("Card not in hand");
             }
             
+            discardPile.push(card);
+            currentColor = newColor;
+            
             // Handle special cards
-            switch (card.getValue()) {
-                case "Skip":
+            switch (Cards.value(card)) {
+                case Cards.SKIP:
                     moveToNextPlayer();
                     moveToNextPlayer(); // Skip the next player
                     break;
-                case "Reverse":
+                case Cards.REVERSE:
                     direction *= -1;
                     clockwise = direction == 1;
                     if (playerOrder.size() == 2) {
@@ -175,11 +190,11 @@ public class GameStateService {
                     }
                     moveToNextPlayer();
                     break;
-                case "Draw Two":
+                case Cards.DRAW_TWO:
                     drawStack += 2;
                     moveToNextPlayer();
                     break;
-                case "Wild Draw Four":
+                case Cards.WILD_DRAW_FOUR_VALUE:
                     drawStack = 4;
                     wildDrawFourChallenge = true;
                     challengedPlayer = playerName;
@@ -189,25 +204,80 @@ public class GameStateService {
                     moveToNextPlayer();
                     break;
             }
+            version++;
+            if (eventListener != null) {
+                eventListener.cardPlayed(version, playerOrder.indexOf(playerName), card, newColor);
+            }
+        }
+        
+        /**
+         * Every face in the player's hand that can legally be played right now,
+         * as a bitset with bit {@code Cards.bit(face)} set for each playable face.
+         */
+        public long legalMoves(String playerName) {
+            Hand playerHand = playerHands.get(playerName);
+            if (playerHand == null || playerHand.isEmpty()) {
+                return 0L;
+            }
+            int topCard = getTopCard();
+            long playable;
+            
+            if (drawStack > 0) {
+                if (topCard == Cards.WILD_DRAW_FOUR || Cards.value(topCard) == Cards.DRAW_TWO) {
+                    playable = Cards.valueFaces(Cards.value(topCard));
+                } else {
+                    playable = 0L;
+                }
+            } else {
+                playable = Cards.colorFaces(currentColor)
+                        | Cards.valueFaces(Cards.value(topCard))
+                        | Cards.bit(Cards.WILD);
+                // Can't play Wild Draw Four if the player has a card matching the current color
+                if (!playerHand.hasColor(currentColor)) {
+                    playable |= Cards.bit(Cards.WILD_DRAW_FOUR);
+                } else {
+                    playable &= ~Cards.bit(Cards.WILD_DRAW_FOUR);
+                }
+            }
+            return playable & playerHand.faceMask();
+        }
+        
+        // Whether any card in the player's hand can be played right now
+        public boolean hasPlayableCard(String playerName) {
+            return legalMoves(playerName) != 0L;
         }
         
         public void drawCards(String playerName, int count) {
-            List<CardDataDTO> playerHand = playerHands.get(playerName);
+            Hand playerHand = playerHands.get(playerName);
             if (playerHand == null) return;
             
             for (int i = 0; i < count; i++) {
-                CardDataDTO card = drawCard();
-                if (card != null) {
+                int card = drawCard();
+                if (card != Cards.NONE) {
                     playerHand.add(card);
                 }
             }
         }
         
+        // Voluntary draw: the player takes count cards and the turn passes
+        public void drawAndEndTurn(String playerName, int count) {
+            drawCards(playerName, count);
+            moveToNextPlayer();
+            version++;
+            if (eventListener != null) {
+                eventListener.cardsDrawn(version, playerOrder.indexOf(playerName), count);
+            }
+        }
+        
         public void handleForcedDraw(String playerName) {
             if (drawStack > 0) {
                 drawCards(playerName, drawStack);
                 drawStack = 0;
                 moveToNextPlayer();
+                version++;
+                if (eventListener != null) {
+                    eventListener.forcedDraw(version, playerOrder.indexOf(playerName));
+                }
             }
         }
         
@@ -222,16 +292,16 @@ public class GameStateService {
             return null;
         }
         
-        public CardDataDTO getTopCard() {
-            return discardPile.isEmpty() ? null : discardPile.get(discardPile.size() - 1);
+        public int getTopCard() {
+            return discardPile.peek();
         }
         
         public boolean isGameOver() {
-            return playerHands.values().stream().anyMatch(List::isEmpty);
+            return playerHands.values().stream().anyMatch(Hand::isEmpty);
         }
         
         public String getWinner() {
-            for (Map.Entry<String, List<CardDataDTO>> entry : playerHands.entrySet()) {
+            for (Map.Entry<String, Hand> entry : playerHands.entrySet()) {
                 if (entry.getValue().isEmpty()) {
                     return entry.getKey();
                 }
@@ -240,37 +310,209 @@ public class GameStateService {
         }
         
         // Getters and setters
-        public String getCurrentColor() { return currentColor; }
+        public String getCurrentColor() { return Cards.colorName(currentColor); }
         public int getCurrentPlayerIndex() { return currentPlayerIndex; }
-        public List<CardDataDTO> getPlayerHand(String playerName) { return playerHands.get(playerName); }
+        public Hand getPlayerHand(String playerName) { return playerHands.get(playerName); }
+        public int getHandSize(String playerName) {
+            Hand hand = playerHands.get(playerName);
+            return hand != null ? hand.size() : 0;
+        }
         public boolean isClockwise() { return direction == 1; }
         public int getDrawStack() { return drawStack; }
         public boolean isGameStarted() { return gameStarted; }
         public List<String> getPlayerOrder() { return playerOrder; }
-        public Map<String, List<CardDataDTO>> getAllPlayerHands() { return playerHands; }
+        public Map<String, Hand> getAllPlayerHands() { return playerHands; }
+        public int getDeckSize() { return deck.size(); }
+        public long getSeed() { return seed; }
+        // Number of commands accepted since startGame; 0 before the game starts
+        public int getVersion() { return version; }
+        // Times the discard pile was shuffled back into an empty deck
+        public int getReshuffleCount() { return reshuffleCount; }
+        public GameEventListener getEventListener() { return eventListener; }
+        public void setEventListener(GameEventListener eventListener) { this.eventListener = eventListener; }
+        public int getDiscardPileSize() { return discardPile.size(); }
         
-        public void setCurrentColor(String color) { this.currentColor = color; }
+        public void setCurrentColor(String color) { this.currentColor = Cards.parseColor(color); }
         public void setDrawStack(int amount) { this.drawStack = amount; }
+        
+        /**
+         * Writes the complete game state in a compact binary form, including the position
+         * of the random generator, so that a game read back with readFrom continues exactly
+         * as this one would. Must run on the room's mailbox.
+         */
+        public void writeTo(DataOutputStream out) throws IOException {
+            out.writeLong(seed);
+            out.writeInt(version);
+            out.writeLong(random.getState());
+            out.writeInt(reshuffleCount);
+            deck.writeTo(out);
+            discardPile.writeTo(out);
+            out.writeByte(playerOrder.size());
+            for (String player : playerOrder) {
+                out.writeUTF(player);
+                Hand hand = playerHands.get(player);
+                (hand != null ? hand : new Hand()).writeTo(out);
+            }
+            out.writeByte(currentPlayerIndex);
+            out.writeByte(direction);
+            out.writeByte(currentColor);
+            out.writeShort(drawStack);
+            out.writeBoolean(gameStarted);
+            out.writeBoolean(wildDrawFourChallenge);
+            writeNullable(out, challengingPlayer);
+            writeNullable(out, challengedPlayer);
+        }
+        
+        public static MultiplayerGameState readFrom(DataInputStream in) throws IOException {
+            return readFrom(in, true);
+        }
+        
+        // Older snapshots lack the reshuffle count; those games read back with 0
+        static MultiplayerGameState readFrom(DataInputStream in, boolean withReshuffleCount) throws IOException {
+            MultiplayerGameState game = new MultiplayerGameState(in.readLong());
+            game.version = in.readInt();
+            game.random = new GameRandom(in.readLong());
+            if (withReshuffleCount) {
+                game.reshuffleCount = in.readInt();
+            }
+            game.deck.readFrom(in);
+            game.discardPile.readFrom(in);
+            int players = in.readByte();
+            for (int i = 0; i < players; i++) {
+                String player = in.readUTF();
+                game.playerOrder.add(player);
+                game.playerHands.put(player, Hand.readFrom(in));
+            }
+            game.currentPlayerIndex = in.readByte();
+            game.direction = in.readByte();
+            game.clockwise = game.direction == 1;
+            game.currentColor = in.readByte();
+            game.drawStack = in.readShort();
+            game.gameStarted = in.readBoolean();
+            game.wildDrawFourChallenge = in.readBoolean();
+            game.challengingPlayer = readNullable(in);
+            game.challengedPlayer = readNullable(in);
+            return game;
+        }
+        
+        private static void writeNullable(DataOutputStream out, String value) throws IOException {
+            out.writeBoolean(value != null);
+            if (value != null) {
+                out.writeUTF(value);
+            }
+        }
+        
+        private static String readNullable(DataInputStream in) throws IOException {
+            return in.readBoolean() ? in.readUTF() : null;
+        }
     }
     
     // Room management
-    private final Map<String, MultiplayerGameState> gameStates = new HashMap<>();
+    private final Map<String, MultiplayerGameState> gameStates = new ConcurrentHashMap<>();
+    private final Map<String, RoomMailbox> mailboxes = new ConcurrentHashMap<>();
+    private final ExecutorService roomExecutor;
+    private volatile Function<String, GameEventListener> eventListenerFactory;
+    
+    public GameStateService() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+    
+    public GameStateService(int workerThreads) {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.roomExecutor = Executors.newFixedThreadPool(workerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "room-worker-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    /**
+     * Runs a command on the room's mailbox. Commands for the same room run one at a time
+     * in submission order, so all reads and writes of a room's game state must go through here.
+     */
+    public void execute(String roomId, Runnable command) {
+        // A retired mailbox refuses the command once it has closed; the retry gets a fresh one
+        RoomMailbox mailbox = mailboxes.computeIfAbsent(roomId, this::newMailbox);
+        while (!mailbox.submit(command)) {
+            mailboxes.remove(roomId, mailbox);
+            mailbox = mailboxes.computeIfAbsent(roomId, this::newMailbox);
+        }
+    }
+    
+    /**
+     * Runs a command on the room's mailbox only if it has one that is still open.
+     * Returns false, running nothing, for rooms whose mailbox was never created or is retired.
+     */
+    public boolean executeIfPresent(String roomId, Runnable command) {
+        RoomMailbox mailbox = mailboxes.get(roomId);
+        return mailbox != null && mailbox.submit(command);
+    }
+    
+    /**
+     * Drops the room's mailbox once the commands already queued on it have run.
+     * Commands sent afterwards start a new mailbox that only runs after the old one closed.
+     */
+    public void retireMailbox(String roomId) {
+        RoomMailbox mailbox = mailboxes.get(roomId);
+        if (mailbox != null) {
+            mailbox.retire();
+        }
+    }
+    
+    int getMailboxCount() {
+        return mailboxes.size();
+    }
+    
+    private RoomMailbox newMailbox(String roomId) {
+        return new RoomMailbox(roomExecutor, closed -> mailboxes.remove(roomId, closed));
+    }
+    
+    // Every game created afterwards reports its accepted commands to a listener made for its room
+    public void setEventListenerFactory(Function<String, GameEventListener> eventListenerFactory) {
+        this.eventListenerFactory = eventListenerFactory;
+    }
     
     public MultiplayerGameState createGame(String roomId) {
         MultiplayerGameState gameState = new MultiplayerGameState();
+        Function<String, GameEventListener> factory = eventListenerFactory;
+        if (factory != null) {
+            gameState.setEventListener(factory.apply(roomId));
+        }
         gameStates.put(roomId, gameState);
         return gameState;
     }
     
+    // Puts back a game rebuilt during recovery
+    public void restoreGame(String roomId, MultiplayerGameState gameState) {
+        gameStates.put(roomId, gameState);
+    }
+    
+    public int getGameCount() {
+        return gameStates.size();
+    }
+    
+    public Map<String, MultiplayerGameState> getAllGames() {
+        return Collections.unmodifiableMap(gameStates);
+    }
+    
     public MultiplayerGameState getGame(String roomId) {
         return gameStates.get(roomId);
     }
     
     public void removeGame(String roomId) {
-        gameStates.remove(roomId);
+        MultiplayerGameState removed = gameStates.remove(roomId);
+        retireMailbox(roomId);
+        if (removed != null && removed.getEventListener() != null) {
+            removed.getEventListener().gameRemoved();
+        }
     }
     
     public boolean gameExists(String roomId) {
         return gameStates.containsKey(roomId);
     }
-} 
\ No newline at end of file
+    
+    @PreDestroy
+    public void shutdown() {
+        roomExecutor.shutdown();
+    }
+}
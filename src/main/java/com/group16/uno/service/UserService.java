@@ -1,4 +1,5 @@
 package com.group16.uno.service;
+import com.group16.uno.config.JwtService;
 import com.group16.uno.model.User;
 import com.group16.uno.model.PasswordResetToken;
 import com.group16.uno.repository.PasswordTokenRepository;
@@ -10,6 +11,7 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
+import java.time.Instant;
 import java.util.Optional;
 
 @Service
@@ -18,11 +20,14 @@ public class UserService implements UserDetailsService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final PasswordTokenRepository passwordTokenRepository;
+    private final JwtService jwtService;
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, PasswordTokenRepository passwordTokenRepository) {
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, PasswordTokenRepository passwordTokenRepository,
+                       JwtService jwtService) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.passwordTokenRepository = passwordTokenRepository;
+        this.jwtService = jwtService;
     }
 
 
@@ -58,7 +63,11 @@ public class UserService implements UserDetailsService {
     public void updatePassword(User user, String newPassword) {
         String hashedPassword = passwordEncoder.encode(newPassword);
         user.setPassword(hashedPassword);
+        // Tokens issued with the old password stop working
+        Instant changedAt = Instant.now();
+        user.setPasswordChangedAt(changedAt);
         userRepository.save(user);
+        jwtService.passwordChanged(user.getUsername(), changedAt);
     }
 
     public long getUserCount() {
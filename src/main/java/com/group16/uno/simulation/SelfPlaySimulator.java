@@ -0,0 +1,196 @@
+package com.group16.uno.simulation;
+
+import com.group16.uno.game.Cards;
+import com.group16.uno.game.GameRandom;
+import com.group16.uno.game.Hand;
+import com.group16.uno.service.GameStateService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Headless self-play runner for the MultiplayerGameState rules. Complete games are played by
+ * random or greedy bots, split across every core with fork-join, and checked turn by turn for
+ * rule violations: illegal legalMoves, rejected legal plays, wrong hand sizes and lost cards.
+ *
+ * Game i of a run is seeded with gameSeed(seed, i), so any reported game can be replayed alone.
+ *
+ * Usage: java -cp target/classes com.group16.uno.simulation.SelfPlaySimulator [games] [players] [random|greedy] [seed]
+ */
+public class SelfPlaySimulator {
+
+    public enum Strategy { RANDOM, GREEDY }
+
+    // Games a fork-join leaf plays itself instead of splitting further
+    private static final int GAMES_PER_TASK = 512;
+    // A game still running after this many turns is counted as stalled and abandoned
+    private static final int MAX_TURNS = 5000;
+
+    private static final long WILD_FACES = Cards.bit(Cards.WILD) | Cards.bit(Cards.WILD_DRAW_FOUR);
+
+    private final int players;
+    private final Strategy strategy;
+    private final List<String> playerNames;
+
+    public SelfPlaySimulator(int players, Strategy strategy) {
+        if (players < 2 || players > 4) {
+            throw new IllegalArgumentException("A game has 2 to 4 players");
+        }
+        this.players = players;
+        this.strategy = strategy;
+        this.playerNames = new ArrayList<>();
+        for (int i = 0; i < players; i++) {
+            playerNames.add("bot" + i);
+        }
+    }
+
+    public static long gameSeed(long seed, long gameIndex) {
+        return new GameRandom(seed + gameIndex).nextLong();
+    }
+
+    // Plays games [0, games) on the common fork-join pool
+    public SimulationResult run(long games, long seed) {
+        long start = System.nanoTime();
+        SimulationResult result = ForkJoinPool.commonPool().invoke(new GameRange(seed, 0, games));
+        result.setElapsedNanos(System.nanoTime() - start);
+        return result;
+    }
+
+    private class GameRange extends RecursiveTask<SimulationResult> {
+        private final long seed;
+        private final long from;
+        private final long to;
+
+        GameRange(long seed, long from, long to) {
+            this.seed = seed;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected SimulationResult compute() {
+            if (to - from <= GAMES_PER_TASK) {
+                SimulationResult result = new SimulationResult();
+                for (long game = from; game < to; game++) {
+                    playGame(game, gameSeed(seed, game), result);
+                }
+                return result;
+            }
+            long middle = (from + to) >>> 1;
+            GameRange left = new GameRange(seed, from, middle);
+            left.fork();
+            SimulationResult right = new GameRange(seed, middle, to).compute();
+            return right.merge(left.join());
+        }
+    }
+
+    void playGame(long gameIndex, long gameSeed, SimulationResult result) {
+        GameStateService.MultiplayerGameState game = new GameStateService.MultiplayerGameState(gameSeed);
+        // Bots get their own stream so their choices never shift the deck's shuffles
+        GameRandom choices = new GameRandom(gameSeed).split();
+        game.startGame(playerNames);
+
+        int turns = 0;
+        try {
+            while (!game.isGameOver() && turns < MAX_TURNS) {
+                String player = game.getCurrentPlayerName();
+                Hand hand = game.getPlayerHand(player);
+                long moves = game.legalMoves(player);
+                if ((moves & ~hand.faceMask()) != 0) {
+                    result.violation(gameIndex, "turn " + turns + ": legalMoves offers cards not in hand");
+                    moves &= hand.faceMask();
+                }
+
+                if (moves == 0) {
+                    if (game.getDrawStack() > 0) {
+                        game.handleForcedDraw(player);
+                    } else {
+                        game.drawAndEndTurn(player, 1);
+                    }
+                } else {
+                    int card = choose(moves, choices);
+                    if (!game.canPlayCard(card, player)) {
+                        result.violation(gameIndex, "turn " + turns + ": legalMoves offers unplayable " + Cards.name(card));
+                    }
+                    int sizeBefore = hand.size();
+                    game.playCard(player, card, Cards.colorName(bestColor(hand)));
+                    if (hand.size() != sizeBefore - 1) {
+                        result.violation(gameIndex, "turn " + turns + ": playing " + Cards.name(card)
+                                + " changed the hand from " + sizeBefore + " to " + hand.size() + " cards");
+                    }
+                }
+                turns++;
+
+                int cards = game.getDeckSize() + game.getDiscardPileSize();
+                for (String name : playerNames) {
+                    cards += game.getHandSize(name);
+                }
+                if (cards != Cards.DECK_SIZE) {
+                    result.violation(gameIndex, "turn " + turns + ": " + cards + " cards in play instead of " + Cards.DECK_SIZE);
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            result.violation(gameIndex, "turn " + turns + ": " + e.getMessage());
+        }
+        result.gameFinished(turns, game.getReshuffleCount(), !game.isGameOver());
+    }
+
+    private int choose(long moves, GameRandom choices) {
+        if (strategy == Strategy.GREEDY) {
+            // Get rid of action cards and high numbers first, keep wilds for last
+            long colored = moves & ~WILD_FACES;
+            if (colored == 0) {
+                return Long.numberOfTrailingZeros(moves);
+            }
+            int best = Cards.NONE;
+            for (long m = colored; m != 0; m &= m - 1) {
+                int face = Long.numberOfTrailingZeros(m);
+                if (best == Cards.NONE || Cards.value(face) > Cards.value(best)) {
+                    best = face;
+                }
+            }
+            return best;
+        }
+        // Uniform over the distinct legal faces
+        int pick = choices.nextInt(Long.bitCount(moves));
+        long m = moves;
+        for (int i = 0; i < pick; i++) {
+            m &= m - 1;
+        }
+        return Long.numberOfTrailingZeros(m);
+    }
+
+    // Wild color choice: the color the player holds most of
+    private static int bestColor(Hand hand) {
+        int best = Cards.RED;
+        for (int color = Cards.YELLOW; color < Cards.COLOR_COUNT; color++) {
+            if (hand.colorCount(color) > hand.colorCount(best)) {
+                best = color;
+            }
+        }
+        return best;
+    }
+
+    public static void main(String[] args) {
+        long games = args.length > 0 ? Long.parseLong(args[0]) : 1_000_000L;
+        int players = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        Strategy strategy = args.length > 2 ? Strategy.valueOf(args[2].toUpperCase(Locale.ROOT)) : Strategy.GREEDY;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : ThreadLocalRandom.current().nextLong();
+
+        System.out.println("Simulating " + games + " games of " + players + " " + strategy.name().toLowerCase(Locale.ROOT)
+                + " players on " + ForkJoinPool.commonPool().getParallelism() + " workers, seed " + seed);
+        SelfPlaySimulator simulator = new SelfPlaySimulator(players, strategy);
+        // Short warm-up so the JIT has compiled the engine before timing starts
+        simulator.run(Math.min(games, 20_000), seed ^ 1);
+        SimulationResult result = simulator.run(games, seed);
+        System.out.println(result);
+        if (result.getFirstViolation() != null) {
+            System.out.println("reproduce with seed " + gameSeed(seed, result.getFirstViolationGame()));
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.group16.uno.simulation;
+
+/**
+ * Totals of a self-play run. Each fork-join leaf fills its own instance and the
+ * results are merged on the way back up, so no counter is shared between threads.
+ */
+public class SimulationResult {
+
+    private long games;
+    private long turns;
+    private long reshuffles;
+    private long violations;
+    private long stalledGames;
+    private long firstViolationGame = -1;
+    private String firstViolation;
+    private long elapsedNanos;
+
+    void gameFinished(long turnCount, long reshuffleCount, boolean stalled) {
+        games++;
+        turns += turnCount;
+        reshuffles += reshuffleCount;
+        if (stalled) {
+            stalledGames++;
+        }
+    }
+
+    void violation(long gameIndex, String description) {
+        violations++;
+        if (firstViolationGame < 0 || gameIndex < firstViolationGame) {
+            firstViolationGame = gameIndex;
+            firstViolation = description;
+        }
+    }
+
+    SimulationResult merge(SimulationResult other) {
+        games += other.games;
+        turns += other.turns;
+        reshuffles += other.reshuffles;
+        stalledGames += other.stalledGames;
+        violations += other.violations;
+        if (other.firstViolationGame >= 0
+                && (firstViolationGame < 0 || other.firstViolationGame < firstViolationGame)) {
+            firstViolationGame = other.firstViolationGame;
+            firstViolation = other.firstViolation;
+        }
+        return this;
+    }
+
+    void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getGames() { return games; }
+    public long getTurns() { return turns; }
+    public long getReshuffles() { return reshuffles; }
+    public long getViolations() { return violations; }
+    public long getStalledGames() { return stalledGames; }
+    // Index of the lowest-numbered game with a violation, or -1; see SelfPlaySimulator.gameSeed()
+    public long getFirstViolationGame() { return firstViolationGame; }
+    public String getFirstViolation() { return firstViolation; }
+    public long getElapsedNanos() { return elapsedNanos; }
+
+    public double getGamesPerSecond() {
+        return elapsedNanos == 0 ? 0 : games * 1e9 / elapsedNanos;
+    }
+
+    public double getAverageTurns() {
+        return games == 0 ? 0 : (double) turns / games;
+    }
+
+    public double getReshufflesPerGame() {
+        return games == 0 ? 0 : (double) reshuffles / games;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("games:            %d%n", games));
+        sb.append(String.format("games/sec:        %.0f%n", getGamesPerSecond()));
+        sb.append(String.format("avg turns/game:   %.2f%n", getAverageTurns()));
+        sb.append(String.format("reshuffles/game:  %.3f%n", getReshufflesPerGame()));
+        sb.append(String.format("stalled games:    %d%n", stalledGames));
+        sb.append(String.format("rule violations:  %d", violations));
+        if (firstViolation != null) {
+            sb.append(String.format("%nfirst violation:  game %d: %s", firstViolationGame, firstViolation));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,32 @@
+package com.group16.uno.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChannelQueueDepthTest {
+
+    @Test
+    void get_shouldCountTasksUntilTheyStart() {
+        List<Runnable> queued = new ArrayList<>();
+        ExecutorSubscribableChannel channel = new ExecutorSubscribableChannel(queued::add);
+        ChannelQueueDepth depth = new ChannelQueueDepth();
+        channel.addInterceptor(depth);
+        channel.subscribe(message -> { });
+        channel.subscribe(message -> { });
+
+        channel.send(MessageBuilder.withPayload("a").build());
+        channel.send(MessageBuilder.withPayload("b").build());
+        assertEquals(4, depth.get());
+
+        queued.remove(0).run();
+        assertEquals(3, depth.get());
+        queued.forEach(Runnable::run);
+        assertEquals(0, depth.get());
+    }
+}
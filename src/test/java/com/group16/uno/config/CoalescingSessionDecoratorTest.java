@@ -0,0 +1,230 @@
+package com.group16.uno.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.SessionLimitExceededException;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.security.Principal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoalescingSessionDecoratorTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void sendMessage_shouldKeepOnlyTheNewestFullStateWhileTheClientIsBehind() throws Exception {
+        SlowSession session = new SlowSession();
+        CoalescingSessionDecorator decorator = new CoalescingSessionDecorator(session, 10_000, 1_000_000, executor);
+
+        decorator.sendMessage(frame("/user/queue/gameState", "full", "v1"));
+        assertTrue(session.sending.await(5, TimeUnit.SECONDS));
+        decorator.sendMessage(frame("/user/queue/gameState", "delta", "v2"));
+        decorator.sendMessage(frame("/user/queue/errors", null, "error"));
+        decorator.sendMessage(frame("/topic/game/ROOM01", "full", "room v2"));
+        decorator.sendMessage(frame("/user/queue/gameState", "full", "v3"));
+        decorator.sendMessage(frame("/user/queue/gameState", "delta", "v4"));
+        assertEquals(4, decorator.getBufferedFrameCount());
+
+        session.release.countDown();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (session.sent.size() < 5 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(List.of("v1", "error", "room v2", "v3", "v4"), session.sent);
+    }
+
+    @Test
+    void sendMessage_shouldEvictSessionsPastTheBufferOrSendTimeLimit() throws Exception {
+        SlowSession session = new SlowSession();
+        CoalescingSessionDecorator decorator = new CoalescingSessionDecorator(session, 10_000, 200, executor);
+        decorator.sendMessage(frame("/user/queue/gameState", "full", "v1"));
+        assertTrue(session.sending.await(5, TimeUnit.SECONDS));
+
+        // Frames that cannot be coalesced pile up until the buffer limit
+        assertThrows(SessionLimitExceededException.class, () -> {
+            for (int i = 0; i < 10; i++) {
+                decorator.sendMessage(frame("/user/queue/errors", null, "error " + i));
+            }
+        });
+        assertEquals(0, decorator.getBufferedFrameCount());
+        session.release.countDown();
+
+        SlowSession stuck = new SlowSession();
+        CoalescingSessionDecorator slow = new CoalescingSessionDecorator(stuck, 50, 1_000_000, executor);
+        slow.sendMessage(frame("/user/queue/gameState", "full", "v1"));
+        assertTrue(stuck.sending.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        assertThrows(SessionLimitExceededException.class,
+                () -> slow.sendMessage(frame("/user/queue/gameState", "delta", "v2")));
+        stuck.release.countDown();
+    }
+
+    @Test
+    void evictIfSendTimeExceeded_shouldCloseASessionStuckInAWriteWithoutFurtherSends() throws Exception {
+        SlowSession stuck = new SlowSession();
+        CoalescingSessionDecorator decorator = new CoalescingSessionDecorator(stuck, 50, 1_000_000, executor);
+        assertFalse(decorator.evictIfSendTimeExceeded());
+
+        decorator.sendMessage(frame("/user/queue/gameState", "full", "v1"));
+        assertTrue(stuck.sending.await(5, TimeUnit.SECONDS));
+        decorator.sendMessage(frame("/user/queue/errors", null, "error"));
+        assertFalse(decorator.evictIfSendTimeExceeded());
+        Thread.sleep(100);
+
+        assertTrue(decorator.evictIfSendTimeExceeded());
+        assertFalse(stuck.isOpen());
+        assertEquals(0, decorator.getBufferedFrameCount());
+        stuck.release.countDown();
+    }
+
+    @Test
+    void decorateSession_shouldBufferOnlyInTheCoalescingDecoratorWithTheHandlersLimits() throws Exception {
+        CoalescingWebSocketHandler handler = new CoalescingWebSocketHandler(
+                new ExecutorSubscribableChannel(), new ExecutorSubscribableChannel(), executor);
+        handler.setSendTimeLimit(50);
+        handler.setSendBufferSizeLimit(1_000_000);
+        SlowSession stuck = new SlowSession();
+
+        WebSocketSession decorated = handler.decorateSession(stuck);
+
+        CoalescingSessionDecorator decorator = assertInstanceOf(CoalescingSessionDecorator.class, decorated);
+        assertSame(stuck, decorator.getDelegate());
+        decorator.sendMessage(frame("/user/queue/gameState", "full", "v1"));
+        assertTrue(stuck.sending.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        handler.evictStalledSessions();
+        assertFalse(stuck.isOpen());
+        stuck.release.countDown();
+    }
+
+    private static TextMessage frame(String destination, String state, String body) {
+        StringBuilder frame = new StringBuilder("MESSAGE\n")
+                .append("destination:").append(destination).append('\n');
+        if (state != null) {
+            frame.append("state:").append(state).append('\n');
+        }
+        frame.append("content-type:text/plain\n\n").append(body).append('\0');
+        return new TextMessage(frame.toString());
+    }
+
+    // A client whose first write blocks until released
+    private static final class SlowSession implements WebSocketSession {
+        final CountDownLatch sending = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<String> sent = new CopyOnWriteArrayList<>();
+        volatile boolean open = true;
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) throws java.io.IOException {
+            sending.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            String payload = ((TextMessage) message).getPayload();
+            sent.add(payload.substring(payload.indexOf("\n\n") + 2, payload.length() - 1));
+        }
+
+        @Override
+        public String getId() {
+            return "s1";
+        }
+
+        @Override
+        public URI getUri() {
+            return null;
+        }
+
+        @Override
+        public HttpHeaders getHandshakeHeaders() {
+            return new HttpHeaders();
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return new HashMap<>();
+        }
+
+        @Override
+        public Principal getPrincipal() {
+            return null;
+        }
+
+        @Override
+        public InetSocketAddress getLocalAddress() {
+            return null;
+        }
+
+        @Override
+        public InetSocketAddress getRemoteAddress() {
+            return null;
+        }
+
+        @Override
+        public String getAcceptedProtocol() {
+            return "v12.stomp";
+        }
+
+        @Override
+        public void setTextMessageSizeLimit(int messageSizeLimit) {
+        }
+
+        @Override
+        public int getTextMessageSizeLimit() {
+            return 0;
+        }
+
+        @Override
+        public void setBinaryMessageSizeLimit(int messageSizeLimit) {
+        }
+
+        @Override
+        public int getBinaryMessageSizeLimit() {
+            return 0;
+        }
+
+        @Override
+        public List<WebSocketExtension> getExtensions() {
+            return List.of();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public void close() {
+            open = false;
+        }
+
+        @Override
+        public void close(CloseStatus status) {
+            open = false;
+        }
+    }
+}
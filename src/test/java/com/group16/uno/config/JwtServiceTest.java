@@ -0,0 +1,103 @@
+package com.group16.uno.config;
+
+import com.group16.uno.model.User;
+import com.group16.uno.repository.UserRepository;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class JwtServiceTest {
+
+    private JwtService jwtService;
+    private UserRepository userRepository;
+    private final User alice = alice();
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        when(userRepository.findByUsername(anyString())).thenReturn(Optional.empty());
+        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(alice));
+        jwtService = new JwtService(new SimpleMeterRegistry(), userRepository);
+        ReflectionTestUtils.setField(jwtService, "secret", Base64.getEncoder().encodeToString(new byte[32]));
+        ReflectionTestUtils.setField(jwtService, "expirationMs", 60_000L);
+        ReflectionTestUtils.setField(jwtService, "cacheSize", 100);
+        jwtService.init();
+    }
+
+    @Test
+    void parseClaims_shouldVerifyOnceAndServeRepeatsFromTheCache() {
+        String token = jwtService.generateToken(alice());
+
+        Claims claims = jwtService.parseClaims(token);
+
+        assertEquals("alice", claims.getSubject());
+        assertSame(claims, jwtService.parseClaims(token));
+        assertEquals("alice", jwtService.extractUsername(token));
+        // A different signature is a different cache key and is verified
+        String forged = token.substring(0, token.lastIndexOf('.') + 1) + "AAAA" + token.substring(token.lastIndexOf('.') + 5);
+        assertThrows(JwtException.class, () -> jwtService.parseClaims(forged));
+    }
+
+    @Test
+    void parseClaims_shouldRejectCachedTokensOnceTheyExpire() throws Exception {
+        // exp is cut to whole seconds, so two seconds leave at least one before it expires
+        ReflectionTestUtils.setField(jwtService, "expirationMs", 2000L);
+        String token = jwtService.generateToken(alice());
+        jwtService.parseClaims(token);
+
+        Thread.sleep(2100);
+
+        assertThrows(ExpiredJwtException.class, () -> jwtService.parseClaims(token));
+    }
+
+    @Test
+    void authenticate_shouldBuildThePrincipalFromClaimsUntilThePasswordChanges() throws Exception {
+        String token = jwtService.generateToken(alice);
+
+        UsernamePasswordAuthenticationToken authentication = jwtService.authenticate(token);
+
+        assertEquals(new JwtPrincipal("user-1", "alice"), authentication.getPrincipal());
+        assertEquals("alice", authentication.getName());
+        assertTrue(authentication.getAuthorities().isEmpty());
+
+        // Revocation covers tokens from earlier seconds; iat has no finer precision
+        Thread.sleep(1000);
+        jwtService.passwordChanged("alice", Instant.now());
+        assertThrows(JwtException.class, () -> jwtService.authenticate(token));
+        assertEquals("alice", jwtService.authenticate(jwtService.generateToken(alice)).getName());
+        // The password change time is read once and then kept in memory
+        verify(userRepository, times(1)).findByUsername("alice");
+
+        User bob = new User("bob", "bob@example.com", "hash");
+        bob.setId("user-2");
+        assertThrows(JwtException.class, () -> jwtService.authenticate(jwtService.generateToken(bob)));
+    }
+
+    @Test
+    void authenticate_shouldRejectTokensIssuedBeforeAStoredPasswordChange() throws Exception {
+        String token = jwtService.generateToken(alice);
+        Thread.sleep(1000);
+        alice.setPasswordChangedAt(Instant.now());
+
+        assertThrows(JwtException.class, () -> jwtService.authenticate(token));
+        assertEquals("alice", jwtService.authenticate(jwtService.generateToken(alice)).getName());
+    }
+
+    private static User alice() {
+        User user = new User("alice", "alice@example.com", "hash");
+        user.setId("user-1");
+        return user;
+    }
+}
@@ -0,0 +1,26 @@
+package com.group16.uno.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NativeWebSocketUpgradeStrategyTest {
+
+    @Test
+    void withoutExtensions_shouldHideTheDeflateOfferButKeepOtherHeaders() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/uno-websocket-native");
+        request.addHeader("Sec-WebSocket-Extensions", "permessage-deflate; client_max_window_bits");
+        request.addHeader("Sec-WebSocket-Key", "dGhlIHNhbXBsZSBub25jZQ==");
+
+        HttpServletRequest wrapped = NativeWebSocketUpgradeStrategy.withoutExtensions(request);
+
+        assertNull(wrapped.getHeader("sec-websocket-extensions"));
+        assertFalse(wrapped.getHeaders("Sec-WebSocket-Extensions").hasMoreElements());
+        assertFalse(Collections.list(wrapped.getHeaderNames()).contains("Sec-WebSocket-Extensions"));
+        assertEquals("dGhlIHNhbXBsZSBub25jZQ==", wrapped.getHeader("Sec-WebSocket-Key"));
+    }
+}
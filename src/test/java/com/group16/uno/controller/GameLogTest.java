@@ -0,0 +1,29 @@
+package com.group16.uno.controller;
+
+import com.group16.uno.service.GameRoomService;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameLogTest {
+
+    @Test
+    void sampled_shouldPickAStableShareOfRooms() {
+        GameRoomService rooms = new GameRoomService();
+        GameLog none = new GameLog(0);
+        GameLog all = new GameLog(1);
+        GameLog tenth = new GameLog(0.1);
+
+        int sampled = 0;
+        for (int i = 0; i < 10_000; i++) {
+            String roomId = rooms.createGameRoom("p" + i);
+            assertFalse(none.sampled(roomId));
+            assertTrue(all.sampled(roomId));
+            if (tenth.sampled(roomId)) {
+                sampled++;
+                assertTrue(tenth.sampled(roomId));
+            }
+        }
+        assertTrue(sampled > 800 && sampled < 1200, "sampled " + sampled);
+    }
+}
@@ -0,0 +1,117 @@
+package com.group16.uno.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.group16.uno.dto.CardDataDTO;
+import com.group16.uno.dto.GameEvent;
+import com.group16.uno.game.Cards;
+import com.group16.uno.service.GameStateService;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameStateDeltasTest {
+
+    @Test
+    void deltas_shouldRebuildSubscribedPlayersHandAndBeSmallerThanFullState() throws Exception {
+        GameStateService.MultiplayerGameState game = new GameStateService.MultiplayerGameState(5L);
+        game.startGame(List.of("alice", "bob", "carol", "dave"));
+        GameStateDeltas deltas = new GameStateDeltas();
+        deltas.subscribe("ROOM01", "alice", game);
+        ObjectMapper mapper = new ObjectMapper();
+
+        // Client side copy of alice's hand and version, starting from the full state
+        int[] hand = new int[Cards.FACE_COUNT];
+        for (int face : game.getPlayerHand("alice").toArray()) hand[face]++;
+        int version = game.getVersion();
+        long fullBytes = 0;
+        long deltaBytes = 0;
+        // What alice receives per move: her queue message plus the room topic frame
+        long fullTopicBytes = 0;
+        long deltaTopicBytes = 0;
+
+        for (int turn = 0; turn < 30 && !game.isGameOver(); turn++) {
+            String player = game.getCurrentPlayerName();
+            long moves = game.legalMoves(player);
+            GameEvent response;
+            if (moves != 0) {
+                int card = Long.numberOfTrailingZeros(moves);
+                game.playCard(player, card, "red");
+                response = GameStatePayloads.cardPlayed("ROOM01", player, Cards.name(card), game);
+            } else {
+                game.drawAndEndTurn(player, 1);
+                response = new GameEvent.CardsDrawn(player, 1, "ROOM01", game.getCurrentPlayerName(), game.getDrawStack());
+            }
+
+            GameStateDeltas.Delta delta = deltas.next("ROOM01", game);
+            assertNotNull(delta);
+            assertTrue(delta.isSubscribed("alice"));
+            assertFalse(delta.isSubscribed("bob"));
+            GameEvent.StateDelta message = delta.forPlayer(response, "alice");
+
+            assertEquals(version, message.baseVersion());
+            assertEquals(response.type(), message.event());
+            version = message.version();
+            apply(hand, message.handAdded(), 1);
+            apply(hand, message.handRemoved(), -1);
+            deltaBytes += mapper.writeValueAsBytes(message).length;
+            fullBytes += mapper.writeValueAsBytes(GameStatePayloads.forPlayer(response, game, "alice")).length;
+            GameEvent.StateDelta topic = delta.forTopic(response);
+            assertNull(topic.handAdded());
+            assertNull(topic.legalMoves());
+            deltaTopicBytes += mapper.writeValueAsBytes(topic).length;
+            fullTopicBytes += mapper.writeValueAsBytes(GameStatePayloads.publicView(response, game)).length;
+        }
+
+        assertEquals(game.getVersion(), version);
+        for (int face = 0; face < Cards.FACE_COUNT; face++) {
+            assertEquals(game.getPlayerHand("alice").count(face), hand[face], Cards.name(face));
+        }
+        assertTrue(deltaBytes * 2 < fullBytes, "delta " + deltaBytes + " bytes vs full " + fullBytes);
+        assertTrue(deltaTopicBytes < fullTopicBytes, "topic delta " + deltaTopicBytes + " bytes vs full " + fullTopicBytes);
+        long receivedWithDeltas = deltaBytes + deltaTopicBytes;
+        long receivedInFull = fullBytes + fullTopicBytes;
+        assertTrue(receivedWithDeltas * 2 < receivedInFull, "per move " + receivedWithDeltas + " bytes vs " + receivedInFull);
+    }
+
+    @Test
+    void next_shouldReturnNullWithoutSubscribers() {
+        GameStateService.MultiplayerGameState game = new GameStateService.MultiplayerGameState(5L);
+        game.startGame(List.of("alice", "bob"));
+
+        assertNull(new GameStateDeltas().next("ROOM01", game));
+    }
+
+    @Test
+    void unsubscribe_shouldStopDeltasAndForgetThePlayer() {
+        GameStateService.MultiplayerGameState game = new GameStateService.MultiplayerGameState(5L);
+        game.startGame(List.of("alice", "bob"));
+        GameStateDeltas deltas = new GameStateDeltas();
+        deltas.subscribe("ROOM01", "alice", game);
+        deltas.subscribe("ROOM01", "bob", game);
+        deltas.subscribe("ROOM02", "alice", game);
+        assertEquals(Set.of("ROOM01", "ROOM02"), deltas.subscribedGames("alice"));
+
+        deltas.unsubscribe("ROOM01", "alice");
+        GameStateDeltas.Delta delta = deltas.next("ROOM01", game);
+        assertFalse(delta.isSubscribed("alice"));
+        assertTrue(delta.isSubscribed("bob"));
+        assertEquals(Set.of("ROOM02"), deltas.subscribedGames("alice"));
+
+        deltas.unsubscribe("ROOM01", "bob");
+        deltas.remove("ROOM02");
+        assertNull(deltas.next("ROOM01", game));
+        assertTrue(deltas.subscribedGames("alice").isEmpty());
+        assertTrue(deltas.subscribedGames("bob").isEmpty());
+    }
+
+    private static void apply(int[] hand, List<CardDataDTO> cards, int change) {
+        if (cards != null) {
+            for (CardDataDTO card : cards) {
+                hand[Cards.fromDto(card)] += change;
+            }
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.group16.uno.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.group16.uno.config.WireFormats;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.group16.uno.dto.GameEvent;
+import com.group16.uno.game.Cards;
+import com.group16.uno.service.GameStateService;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpSession;
+import org.springframework.messaging.simp.user.SimpUser;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SharedPayloadSenderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void merge_shouldMatchSerializingTheFullPlayerPayload() throws Exception {
+        GameStateService.MultiplayerGameState game = new GameStateService.MultiplayerGameState(3L);
+        game.startGame(List.of("alice", "bob", "carol"));
+        GameEvent response = GameStatePayloads.cardPlayed("ROOM01", "alice", "red_7", game);
+        SharedPayloadSender sender = new SharedPayloadSender(null, objectMapper);
+
+        byte[] publicJson = sender.encode(GameStatePayloads.publicView(response, game));
+        for (String player : game.getPlayerOrder()) {
+            byte[] merged = SharedPayloadSender.merge(publicJson, sender.encode(GameStatePayloads.privateView(game, player)));
+
+            assertEquals(objectMapper.valueToTree(GameStatePayloads.forPlayer(response, game, player)),
+                    objectMapper.readTree(merged));
+        }
+        assertSame(publicJson, SharedPayloadSender.merge(publicJson, "{}".getBytes()));
+    }
+
+    @Test
+    void encode_shouldWriteEventsAsFlatJsonWithTheTypeFirst() throws Exception {
+        GameStateService.MultiplayerGameState game = new GameStateService.MultiplayerGameState(3L);
+        game.startGame(List.of("alice", "bob"));
+        SharedPayloadSender sender = new SharedPayloadSender(null, new ObjectMapper().registerModule(new BlackbirdModule()));
+        GameEvent drawn = new GameEvent.CardsDrawn("alice", 2, "ROOM01", "bob", 0);
+
+        String json = new String(sender.encode(GameStatePayloads.publicView(drawn, game)));
+        JsonNode node = objectMapper.readTree(json);
+
+        assertTrue(json.startsWith("{\"type\":\"CARDS_DRAWN\""), json);
+        assertEquals(2, node.get("drawCount").asInt());
+        assertEquals(game.getHandSize("bob"), node.get("handSizes").get("bob").asInt());
+        assertEquals(game.getVersion(), node.get("version").asInt());
+        assertEquals("{\"type\":\"ERROR\",\"message\":\"No\"}", new String(sender.encode(new GameEvent.Error("ERROR", "No"))));
+    }
+
+    @Test
+    void sendToUser_shouldSendCborWithCardIdsToSessionsThatNegotiatedIt() throws Exception {
+        GameStateService.MultiplayerGameState game = new GameStateService.MultiplayerGameState(3L);
+        game.startGame(List.of("alice", "bob", "carol"));
+        GameEvent response = GameStatePayloads.cardPlayed("ROOM01", "alice", "red_7", game);
+        WireFormats wireFormats = new WireFormats();
+        assertEquals(WireFormats.WireFormat.CBOR, wireFormats.negotiate("alice", "s1", "cbor", Map.of()));
+        // SockJS sessions cannot carry binary frames
+        assertEquals(WireFormats.WireFormat.JSON,
+                wireFormats.negotiate("alice", "s2", "cbor", Map.of(WireFormats.SOCKJS_ATTRIBUTE, true)));
+        wireFormats.negotiate("bob", "s3", null, Map.of());
+        List<Message<?>> sent = new ArrayList<>();
+        SimpMessagingTemplate template = new SimpMessagingTemplate((message, timeout) -> sent.add(message));
+        SharedPayloadSender sender = new SharedPayloadSender(template, objectMapper, wireFormats);
+
+        SharedPayloadSender.Shared publicView = sender.share(GameStatePayloads.publicView(response, game));
+        sender.sendToUser("alice", "/queue/gameState", publicView, GameStatePayloads.privateView(game, "alice"));
+        sender.sendToUser("bob", "/queue/gameState", publicView, GameStatePayloads.privateView(game, "bob"));
+
+        // One message per session of alice, addressed by session id; one for all of bob's sessions
+        assertEquals(3, sent.size());
+        Map<String, Message<?>> bySession = new HashMap<>();
+        sent.forEach(message -> bySession.put(String.valueOf(SimpMessageHeaderAccessor.getSessionId(message.getHeaders())), message));
+        Message<?> cbor = bySession.get("s1");
+        assertEquals(MimeTypeUtils.APPLICATION_OCTET_STREAM, SimpMessageHeaderAccessor.wrap(cbor).getContentType());
+        assertEquals(MimeTypeUtils.APPLICATION_JSON, SimpMessageHeaderAccessor.wrap(bySession.get("s2")).getContentType());
+        assertEquals(MimeTypeUtils.APPLICATION_JSON, SimpMessageHeaderAccessor.wrap(bySession.get("null")).getContentType());
+        assertEquals("full", SimpMessageHeaderAccessor.wrap(cbor).getFirstNativeHeader("state"));
+        ObjectNode decoded = (ObjectNode) new CBORMapper().readTree((byte[]) cbor.getPayload());
+        ObjectNode expected = objectMapper.valueToTree(GameStatePayloads.forPlayer(response, game, "alice"));
+        JsonNode hand = decoded.remove("playerHand");
+        expected.remove("playerHand");
+        assertEquals(expected, decoded);
+        int[] cards = game.getPlayerHand("alice").toArray();
+        assertEquals(cards.length, hand.size());
+        for (int i = 0; i < cards.length; i++) {
+            assertEquals(cards[i], hand.get(i).asInt(), Cards.name(cards[i]));
+        }
+        byte[] json = sender.encode(GameStatePayloads.forPlayer(response, game, "alice"));
+        assertTrue(((byte[]) cbor.getPayload()).length * 2 < json.length);
+
+        wireFormats.disconnect("s1");
+        assertEquals(WireFormats.WireFormat.JSON, wireFormats.formatOf("s1"));
+        assertTrue(wireFormats.sessionFormats("alice").isEmpty());
+    }
+
+    @Test
+    void sendToUser_shouldOnlyAddressSessionsTheUserRegistryKnows() {
+        WireFormats wireFormats = new WireFormats();
+        wireFormats.negotiate("alice", "s1", "cbor", Map.of());
+        wireFormats.negotiate("alice", "s2", null, Map.of());
+        SimpUserRegistry userRegistry = mock(SimpUserRegistry.class);
+        SimpUser alice = mock(SimpUser.class);
+        when(userRegistry.getUser("alice")).thenReturn(alice);
+        when(alice.getSession("s1")).thenReturn(mock(SimpSession.class));
+        List<Message<?>> sent = new ArrayList<>();
+        SimpMessagingTemplate template = new SimpMessagingTemplate((message, timeout) -> sent.add(message));
+        SharedPayloadSender sender = new SharedPayloadSender(template, objectMapper, wireFormats, userRegistry);
+
+        sender.sendToUser("alice", "/queue/errors", new GameEvent.Error("ERROR", "No"));
+
+        // An unregistered session id would make Spring deliver the CBOR frame to every session
+        assertEquals(1, sent.size());
+        assertEquals("s1", SimpMessageHeaderAccessor.getSessionId(sent.get(0).getHeaders()));
+    }
+
+    @Test
+    void sendToUser_shouldSendJsonBytesToTheUserDestination() {
+        List<Message<?>> sent = new ArrayList<>();
+        SimpMessagingTemplate template = new SimpMessagingTemplate((message, timeout) -> sent.add(message));
+        SharedPayloadSender sender = new SharedPayloadSender(template, objectMapper);
+        byte[] json = "{\"type\":\"CARD_PLAYED\"}".getBytes();
+
+        sender.sendToUser("alice", "/queue/gameState", json);
+
+        assertEquals(1, sent.size());
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.wrap(sent.get(0));
+        assertEquals("/user/alice/queue/gameState", headers.getDestination());
+        assertEquals(MimeTypeUtils.APPLICATION_JSON, headers.getContentType());
+        assertSame(json, sent.get(0).getPayload());
+    }
+}
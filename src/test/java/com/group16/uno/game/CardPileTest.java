@@ -0,0 +1,66 @@
+package com.group16.uno.game;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CardPileTest {
+
+    @Test
+    void pop_shouldReturnCardsFromTailAndNoneWhenEmpty() {
+        CardPile pile = new CardPile();
+        pile.push(3);
+        pile.push(7);
+
+        assertEquals(7, pile.peek());
+        assertEquals(7, pile.pop());
+        assertEquals(3, pile.pop());
+        assertEquals(Cards.NONE, pile.pop());
+        assertTrue(pile.isEmpty());
+    }
+
+    @Test
+    void shuffle_shouldKeepDeckComposition() {
+        CardPile pile = new CardPile();
+        pile.fillFullDeck();
+        pile.shuffle(new GameRandom(42));
+
+        int[] counts = new int[Cards.FACE_COUNT];
+        for (int i = 0; i < pile.size(); i++) {
+            counts[pile.get(i)]++;
+        }
+        assertEquals(Cards.DECK_SIZE, pile.size());
+        for (int face = 0; face < Cards.FACE_COUNT; face++) {
+            assertEquals(Cards.copies(face), counts[face]);
+        }
+    }
+
+    @Test
+    void recycleFrom_shouldMoveAllButTopCard() {
+        CardPile deck = new CardPile();
+        CardPile discard = new CardPile();
+        discard.push(1);
+        discard.push(2);
+        discard.push(Cards.WILD);
+
+        int moved = deck.recycleFrom(discard);
+
+        assertEquals(2, moved);
+        assertEquals(2, deck.size());
+        assertEquals(1, discard.size());
+        assertEquals(Cards.WILD, discard.peek());
+        assertEquals(2, deck.pop());
+        assertEquals(1, deck.pop());
+    }
+
+    @Test
+    void recycleFrom_shouldDoNothingWithSingleDiscard() {
+        CardPile deck = new CardPile();
+        CardPile discard = new CardPile();
+        discard.push(5);
+
+        assertEquals(0, deck.recycleFrom(discard));
+        assertTrue(deck.isEmpty());
+        assertEquals(5, discard.peek());
+    }
+}
@@ -0,0 +1,117 @@
+package com.group16.uno.game;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replay_shouldReturnAppendedRecordsInOrderAcrossSegments() throws IOException {
+        try (GameJournal journal = new GameJournal(directory, 64, 1000)) {
+            for (int i = 0; i < 20; i++) {
+                journal.append(ByteBuffer.wrap(new byte[]{(byte) i, 1, 2, 3}));
+            }
+        }
+
+        assertTrue(segmentCount() > 1);
+        assertEquals(range(20), replayFirstBytes());
+    }
+
+    @Test
+    void replay_shouldStopAtCorruptRecord() throws IOException {
+        try (GameJournal journal = new GameJournal(directory, 1024, 1000)) {
+            for (int i = 0; i < 3; i++) {
+                journal.append(ByteBuffer.wrap(new byte[]{(byte) i, 9}));
+            }
+        }
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.findFirst().orElseThrow();
+        }
+        // Flip a payload byte of the third record (each record is 8 header bytes + 2 payload bytes)
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            file.seek(2 * 10 + 8);
+            file.write(42);
+        }
+
+        assertEquals(range(2), replayFirstBytes());
+    }
+
+    @Test
+    void append_shouldContinueInNewSegmentAfterReopen() throws IOException {
+        try (GameJournal journal = new GameJournal(directory, 1024, 1000)) {
+            journal.append(ByteBuffer.wrap(new byte[]{0}));
+        }
+        try (GameJournal journal = new GameJournal(directory, 1024, 1000)) {
+            journal.append(ByteBuffer.wrap(new byte[]{1}));
+        }
+
+        assertEquals(2, segmentCount());
+        assertEquals(range(2), replayFirstBytes());
+    }
+
+    @Test
+    void append_shouldKeepEachWritersOrderAcrossConcurrentWriters() throws Exception {
+        int writers = 4;
+        int records = 1000;
+        try (GameJournal journal = new GameJournal(directory, 4096, 1)) {
+            List<Thread> threads = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                int writer = w;
+                threads.add(Thread.ofPlatform().start(() -> {
+                    for (int i = 0; i < records; i++) {
+                        journal.append(ByteBuffer.allocate(5).put((byte) writer).putInt(i).flip());
+                    }
+                }));
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        }
+
+        int[] next = new int[writers];
+        try (GameJournal journal = new GameJournal(directory, 4096, 1000)) {
+            journal.replay(record -> {
+                int writer = record.get();
+                assertEquals(next[writer]++, record.getInt());
+            });
+        }
+        for (int w = 0; w < writers; w++) {
+            assertEquals(records, next[w]);
+        }
+    }
+
+    private List<Integer> replayFirstBytes() throws IOException {
+        List<Integer> seen = new ArrayList<>();
+        try (GameJournal journal = new GameJournal(directory, 64, 1000)) {
+            journal.replay(record -> seen.add((int) record.get()));
+        }
+        return seen;
+    }
+
+    private long segmentCount() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
+    private static List<Integer> range(int n) {
+        List<Integer> values = new ArrayList<>();
+        for (int i = 0; i < n; i++) values.add(i);
+        return values;
+    }
+}
@@ -0,0 +1,32 @@
+package com.group16.uno.game;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameRandomTest {
+
+    @Test
+    void getState_shouldResumeTheSameSequence() {
+        GameRandom random = new GameRandom(7);
+        random.nextLong();
+        GameRandom resumed = new GameRandom(random.getState());
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(random.nextInt(108), resumed.nextInt(108));
+        }
+    }
+
+    @Test
+    void nextInt_shouldStayInBoundsAndCoverEveryValue() {
+        GameRandom random = new GameRandom(42);
+        int[] counts = new int[7];
+        for (int i = 0; i < 70_000; i++) {
+            counts[random.nextInt(7)]++;
+        }
+        for (int count : counts) {
+            assertTrue(count > 9_000 && count < 11_000, "count " + count);
+        }
+        assertThrows(IllegalArgumentException.class, () -> random.nextInt(0));
+    }
+}
@@ -0,0 +1,130 @@
+package com.group16.uno.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameJournalServiceTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void open_shouldRebuildInProgressGamesFromSeedAndCommands() throws IOException {
+        GameStateService gameStateService = new GameStateService(1);
+        GameRoomService gameRoomService = new GameRoomService();
+        GameJournalService journalService = new GameJournalService(gameStateService, gameRoomService,
+                new GameSnapshotService(gameStateService, gameRoomService));
+        journalService.open(directory, 1 << 16, 1000);
+
+        GameStateService.MultiplayerGameState game = gameStateService.createGame("ROOM1");
+        game.startGame(List.of("alice", "bob", "carol"));
+        playSomeTurns(game, 300);
+        assertFalse(game.isGameOver());
+        journalService.close();
+        gameStateService.shutdown();
+
+        GameStateService restoredStates = new GameStateService(1);
+        GameRoomService restoredRooms = new GameRoomService();
+        GameJournalService restoredJournal = new GameJournalService(restoredStates, restoredRooms,
+                new GameSnapshotService(restoredStates, restoredRooms));
+        restoredJournal.open(directory, 1 << 16, 1000);
+
+        GameStateService.MultiplayerGameState restored = restoredStates.getGame("ROOM1");
+        assertNotNull(restored);
+        assertEquals(game.getVersion(), restored.getVersion());
+        assertEquals(game.getPlayerOrder(), restored.getPlayerOrder());
+        assertEquals(game.getCurrentPlayerName(), restored.getCurrentPlayerName());
+        assertEquals(game.getTopCard(), restored.getTopCard());
+        assertEquals(game.getCurrentColor(), restored.getCurrentColor());
+        assertEquals(game.getDrawStack(), restored.getDrawStack());
+        assertEquals(game.getDeckSize(), restored.getDeckSize());
+        for (String player : game.getPlayerOrder()) {
+            assertArrayEquals(game.getPlayerHand(player).toArray(), restored.getPlayerHand(player).toArray());
+        }
+        GameRoomService.GameRoom room = restoredRooms.getGameRoom("ROOM1");
+        assertTrue(room.isGameStarted());
+        assertEquals("alice", room.getCreatorId());
+        restoredJournal.close();
+        restoredStates.shutdown();
+    }
+
+    @Test
+    void cardsDrawn_shouldRejectCountsTheJournalCannotReplay() throws IOException {
+        GameStateService gameStateService = new GameStateService(1);
+        GameRoomService gameRoomService = new GameRoomService();
+        GameJournalService journalService = new GameJournalService(gameStateService, gameRoomService,
+                new GameSnapshotService(gameStateService, gameRoomService));
+        journalService.open(directory, 1 << 16, 1000);
+        GameStateService.MultiplayerGameState game = gameStateService.createGame("ROOM1");
+        game.startGame(List.of("alice", "bob"));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> game.getEventListener().cardsDrawn(game.getVersion() + 1, 0, 1 << 16));
+        assertThrows(IllegalArgumentException.class,
+                () -> game.getEventListener().cardsDrawn(game.getVersion() + 1, 0, -1));
+        journalService.close();
+        gameStateService.shutdown();
+    }
+
+    @Test
+    void gameRemoved_shouldDeleteSegmentsOnlyRemovedGamesWroteToWithoutSnapshots() throws IOException {
+        GameStateService gameStateService = new GameStateService(1);
+        GameRoomService gameRoomService = new GameRoomService();
+        GameJournalService journalService = new GameJournalService(gameStateService, gameRoomService,
+                new GameSnapshotService(gameStateService, gameRoomService));
+        journalService.open(directory, 128, 60_000);
+        GameStateService.MultiplayerGameState game = gameStateService.createGame("ROOM1");
+        game.startGame(List.of("alice", "bob", "carol"));
+        playSomeTurns(game, 40);
+        journalService.flush();
+        GameStateService.MultiplayerGameState other = gameStateService.createGame("ROOM2");
+        other.startGame(List.of("dave", "erin"));
+        playSomeTurns(other, 40);
+        journalService.flush();
+        long written = segmentCount();
+        assertTrue(written >= 6, written + " segments");
+
+        // ROOM2 started after ROOM1 and is still live, so only ROOM1's oldest segments go
+        gameStateService.removeGame("ROOM1");
+        long afterFirst = segmentCount();
+        assertTrue(afterFirst < written && afterFirst > 1, afterFirst + " of " + written + " segments left");
+        journalService.flush();
+        gameStateService.removeGame("ROOM2");
+        assertTrue(segmentCount() <= 2, segmentCount() + " segments left");
+        journalService.close();
+        gameStateService.shutdown();
+    }
+
+    private long segmentCount() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
+    // Plays the lowest legal card, or draws, for the current player; stops before anyone can win
+    static void playSomeTurns(GameStateService.MultiplayerGameState game, int turns) {
+        for (int i = 0; i < turns; i++) {
+            String player = game.getCurrentPlayerName();
+            if (game.getHandSize(player) <= 1) {
+                return;
+            }
+            long moves = game.legalMoves(player);
+            if (game.getDrawStack() > 0 && moves == 0) {
+                game.handleForcedDraw(player);
+            } else if (moves == 0) {
+                game.drawAndEndTurn(player, 1);
+            } else {
+                int card = Long.numberOfTrailingZeros(moves);
+                game.playCard(player, card, "green");
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.group16.uno.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameRoomServiceTest {
+
+    private GameRoomService gameRoomService;
+
+    @BeforeEach
+    void setup() {
+        gameRoomService = new GameRoomService();
+    }
+
+    @Test
+    void createGameRoom_shouldReturnUniqueCompactIds() {
+        Set<String> ids = new HashSet<>();
+        for (int i = 0; i < 10000; i++) {
+            String roomId = gameRoomService.createGameRoom("creator" + i);
+            assertEquals(6, roomId.length());
+            assertTrue(ids.add(roomId));
+        }
+        assertEquals(10000, gameRoomService.getRoomCount());
+    }
+
+    @Test
+    void addPlayerToRoom_shouldRejectDuplicatesAndFullRooms() {
+        String roomId = gameRoomService.createGameRoom("alice");
+
+        assertTrue(gameRoomService.addPlayerToRoom(roomId, "alice"));
+        assertFalse(gameRoomService.addPlayerToRoom(roomId, "alice"));
+        assertTrue(gameRoomService.addPlayerToRoom(roomId, "bob"));
+        assertTrue(gameRoomService.addPlayerToRoom(roomId, "carol"));
+        assertTrue(gameRoomService.addPlayerToRoom(roomId, "dave"));
+        assertFalse(gameRoomService.addPlayerToRoom(roomId, "erin"));
+        assertFalse(gameRoomService.addPlayerToRoom("MISSING", "alice"));
+    }
+
+    @Test
+    void addPlayerToRoom_shouldAdmitAtMostFourConcurrentJoiners() throws InterruptedException {
+        String roomId = gameRoomService.createGameRoom("host");
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger joined = new AtomicInteger();
+
+        for (int i = 0; i < 32; i++) {
+            String player = "player" + i;
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                if (gameRoomService.addPlayerToRoom(roomId, player)) {
+                    joined.incrementAndGet();
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(4, joined.get());
+        assertEquals(4, gameRoomService.getGameRoom(roomId).getPlayers().size());
+    }
+
+    @Test
+    void removePlayerFromRoom_shouldDeleteEmptyRoom() {
+        String roomId = gameRoomService.createGameRoom("alice");
+        gameRoomService.addPlayerToRoom(roomId, "alice");
+
+        assertTrue(gameRoomService.removePlayerFromRoom(roomId, "alice"));
+        assertNull(gameRoomService.getGameRoom(roomId));
+        assertFalse(gameRoomService.removePlayerFromRoom(roomId, "alice"));
+    }
+
+    @Test
+    void removeRoom_shouldDropRoomWithPlayersStillSeated() {
+        String roomId = gameRoomService.createGameRoom("alice");
+        gameRoomService.addPlayerToRoom(roomId, "alice");
+        gameRoomService.addPlayerToRoom(roomId, "bob");
+
+        assertTrue(gameRoomService.removeRoom(roomId));
+        assertNull(gameRoomService.getGameRoom(roomId));
+        assertEquals(0, gameRoomService.getRoomCount());
+        assertFalse(gameRoomService.removeRoom(roomId));
+    }
+
+    @Test
+    void startGame_shouldDelegateToEngineAndOnlyAllowCreator() {
+        String roomId = gameRoomService.createGameRoom("alice");
+        gameRoomService.addPlayerToRoom(roomId, "alice");
+        gameRoomService.addPlayerToRoom(roomId, "bob");
+        GameRoomService.GameRoom room = gameRoomService.getGameRoom(roomId);
+        GameStateService.MultiplayerGameState game = new GameStateService.MultiplayerGameState();
+        game.startGame(room.getPlayers());
+
+        assertThrows(IllegalStateException.class, () -> room.startGame("bob", game));
+        assertFalse(room.isGameStarted());
+
+        room.startGame("alice", game);
+
+        assertTrue(room.isGameStarted());
+        assertSame(game, room.getGame());
+        assertEquals(game.getCurrentPlayerName(), room.getCurrentPlayer());
+    }
+}
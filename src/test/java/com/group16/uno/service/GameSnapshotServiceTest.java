@@ -0,0 +1,128 @@
+package com.group16.uno.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameSnapshotServiceTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void open_shouldRestoreSnapshotThenReplayNewerJournalRecords() throws IOException {
+        Path snapshots = directory.resolve("snapshots");
+        Path journal = directory.resolve("journal");
+        GameStateService gameStateService = new GameStateService(1);
+        GameRoomService gameRoomService = new GameRoomService();
+        GameSnapshotService snapshotService = new GameSnapshotService(gameStateService, gameRoomService);
+        GameJournalService journalService = new GameJournalService(gameStateService, gameRoomService, snapshotService);
+        snapshotService.open(snapshots, 0);
+        journalService.open(journal, 1 << 16, 1000);
+
+        String lobbyId = gameRoomService.createGameRoom("dave");
+        gameRoomService.addPlayerToRoom(lobbyId, "dave");
+        gameRoomService.addPlayerToRoom(lobbyId, "erin");
+        gameRoomService.getGameRoom(lobbyId).setPlayerReady("erin", true);
+
+        String roomId = gameRoomService.createGameRoom("alice");
+        for (String player : List.of("alice", "bob", "carol")) {
+            gameRoomService.addPlayerToRoom(roomId, player);
+        }
+        GameStateService.MultiplayerGameState game = gameStateService.createGame(roomId);
+        game.startGame(List.of("alice", "bob", "carol"));
+        gameRoomService.getGameRoom(roomId).startGame("alice", game);
+        GameJournalServiceTest.playSomeTurns(game, 10);
+        assertTrue(snapshotService.snapshot());
+        // Only the segment started by the snapshot is left
+        assertEquals(1, count(journal));
+        GameJournalServiceTest.playSomeTurns(game, 10);
+        journalService.close();
+        snapshotService.close();
+        gameStateService.shutdown();
+
+        GameStateService restoredStates = new GameStateService(1);
+        GameRoomService restoredRooms = new GameRoomService();
+        GameSnapshotService restoredSnapshots = new GameSnapshotService(restoredStates, restoredRooms);
+        GameJournalService restoredJournal = new GameJournalService(restoredStates, restoredRooms, restoredSnapshots);
+        restoredSnapshots.open(snapshots, 0);
+        restoredJournal.open(journal, 1 << 16, 1000);
+
+        GameStateService.MultiplayerGameState restored = restoredStates.getGame(roomId);
+        assertNotNull(restored);
+        assertEquals(game.getVersion(), restored.getVersion());
+        assertSameState(game, restored);
+        assertSame(restored, restoredRooms.getGameRoom(roomId).getGame());
+
+        GameRoomService.GameRoom lobby = restoredRooms.getGameRoom(lobbyId);
+        assertEquals(List.of("dave", "erin"), lobby.getPlayers());
+        assertFalse(lobby.getPlayerReadyStates().get("dave"));
+        assertTrue(lobby.getPlayerReadyStates().get("erin"));
+        assertFalse(lobby.isGameStarted());
+
+        // The random generator's position is part of the snapshot, so later reshuffles match too
+        GameJournalServiceTest.playSomeTurns(game, 200);
+        GameJournalServiceTest.playSomeTurns(restored, 200);
+        assertSameState(game, restored);
+        restoredJournal.close();
+        restoredStates.shutdown();
+    }
+
+    @Test
+    void close_shouldRecordTheJournalSegmentWhenShutDownInBeanOrder() throws IOException {
+        Path snapshots = directory.resolve("snapshots");
+        Path journal = directory.resolve("journal");
+        GameStateService gameStateService = new GameStateService(1);
+        GameRoomService gameRoomService = new GameRoomService();
+        GameSnapshotService snapshotService = new GameSnapshotService(gameStateService, gameRoomService);
+        GameJournalService journalService = new GameJournalService(gameStateService, gameRoomService, snapshotService);
+        snapshotService.open(snapshots, 60_000);
+        journalService.open(journal, 1 << 16, 1000);
+        String roomId = gameRoomService.createGameRoom("alice");
+        gameRoomService.addPlayerToRoom(roomId, "alice");
+        gameRoomService.addPlayerToRoom(roomId, "bob");
+        GameStateService.MultiplayerGameState game = gameStateService.createGame(roomId);
+        game.startGame(List.of("alice", "bob"));
+        gameRoomService.getGameRoom(roomId).startGame("alice", game);
+        GameJournalServiceTest.playSomeTurns(game, 10);
+
+        // Spring destroys the journal service first, as it depends on the snapshot service
+        journalService.close();
+        snapshotService.close();
+        gameStateService.shutdown();
+
+        GameStateService restoredStates = new GameStateService(1);
+        GameSnapshotService restoredSnapshots = new GameSnapshotService(restoredStates, new GameRoomService());
+        restoredSnapshots.open(snapshots, 0);
+        assertTrue(restoredSnapshots.getRestoredJournalSegment() > 0);
+        assertEquals(game.getVersion(), restoredStates.getGame(roomId).getVersion());
+        restoredStates.shutdown();
+    }
+
+    private static void assertSameState(GameStateService.MultiplayerGameState expected,
+                                        GameStateService.MultiplayerGameState actual) {
+        assertEquals(expected.getPlayerOrder(), actual.getPlayerOrder());
+        assertEquals(expected.getCurrentPlayerName(), actual.getCurrentPlayerName());
+        assertEquals(expected.getTopCard(), actual.getTopCard());
+        assertEquals(expected.getCurrentColor(), actual.getCurrentColor());
+        assertEquals(expected.getDrawStack(), actual.getDrawStack());
+        assertEquals(expected.getDeckSize(), actual.getDeckSize());
+        assertEquals(expected.getReshuffleCount(), actual.getReshuffleCount());
+        for (String player : expected.getPlayerOrder()) {
+            assertArrayEquals(expected.getPlayerHand(player).toArray(), actual.getPlayerHand(player).toArray());
+        }
+    }
+
+    private static long count(Path journal) throws IOException {
+        try (Stream<Path> files = Files.list(journal)) {
+            return files.count();
+        }
+    }
+}
@@ -0,0 +1,324 @@
+package com.group16.uno.service;
+
+import com.group16.uno.dto.CardDataDTO;
+import com.group16.uno.game.Cards;
+import com.group16.uno.game.Hand;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameStateServiceTest {
+
+    private GameStateService gameStateService;
+    private GameStateService.MultiplayerGameState gameState;
+
+    @BeforeEach
+    void setup() {
+        gameStateService = new GameStateService();
+        gameState = gameStateService.createGame("ROOM1");
+    }
+
+    @Test
+    void cards_shouldRoundTripEveryFaceThroughDto() {
+        for (int face = 0; face < Cards.FACE_COUNT; face++) {
+            CardDataDTO dto = Cards.toDto(face);
+            assertEquals(face, Cards.fromDto(dto));
+            assertEquals(face, Cards.parseCard(dto.toString(), null));
+        }
+        assertEquals(Cards.NONE, Cards.parseCard("purple_7", null));
+    }
+
+    @Test
+    void newGame_shouldContainFullDeck() {
+        int[] counts = new int[Cards.FACE_COUNT];
+        int total = 0;
+        int card;
+        while ((card = gameState.drawCard()) != Cards.NONE) {
+            counts[card]++;
+            total++;
+        }
+
+        assertEquals(Cards.DECK_SIZE, total);
+        for (int face = 0; face < Cards.FACE_COUNT; face++) {
+            assertEquals(Cards.copies(face), counts[face], Cards.name(face));
+        }
+    }
+
+    @Test
+    void startGame_shouldDealSevenCardsAndNonWildTopCard() {
+        gameState.startGame(List.of("alice", "bob", "carol"));
+
+        assertTrue(gameState.isGameStarted());
+        for (String player : gameState.getPlayerOrder()) {
+            assertEquals(7, gameState.getHandSize(player));
+        }
+        assertFalse(Cards.isWild(gameState.getTopCard()));
+        assertEquals(Cards.colorName(Cards.color(gameState.getTopCard())), gameState.getCurrentColor());
+    }
+
+    @Test
+    void startGame_shouldRejectSinglePlayer() {
+        assertThrows(IllegalStateException.class, () -> gameState.startGame(List.of("alice")));
+    }
+
+    @Test
+    void startGame_shouldRejectMorePlayersThanOneDeckCanDeal() {
+        List<String> players = new ArrayList<>();
+        for (int i = 0; i < 15; i++) {
+            players.add("player" + i);
+        }
+
+        assertThrows(IllegalStateException.class, () -> gameState.startGame(players));
+        gameState.startGame(players.subList(0, 14));
+        assertEquals(Cards.DECK_SIZE - 14 * 7 - 1, gameState.getDeckSize());
+    }
+
+    @Test
+    void writeTo_shouldCarryTheReshuffleCountThroughReadFromAndReadOlderGamesWithout() throws IOException {
+        gameState.startGame(List.of("alice", "bob", "carol", "dave"));
+        // Nobody goes out, so the deck runs dry and the discard pile is shuffled back in
+        for (int turn = 0; gameState.getReshuffleCount() == 0; turn++) {
+            assertTrue(turn < 10_000, "Deck was never reshuffled");
+            String player = gameState.getCurrentPlayerName();
+            long moves = gameState.legalMoves(player);
+            if (gameState.getHandSize(player) > 2 && moves != 0) {
+                gameState.playCard(player, Long.numberOfTrailingZeros(moves), "red");
+            } else if (gameState.getDrawStack() > 0) {
+                gameState.handleForcedDraw(player);
+            } else {
+                gameState.drawAndEndTurn(player, 1);
+            }
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        gameState.writeTo(new DataOutputStream(bytes));
+        GameStateService.MultiplayerGameState restored = GameStateService.MultiplayerGameState.readFrom(
+                new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(gameState.getReshuffleCount(), restored.getReshuffleCount());
+        assertEquals(gameState.getDeckSize(), restored.getDeckSize());
+
+        // The older layout: the same fields without the count after seed, version and random state
+        byte[] current = bytes.toByteArray();
+        byte[] older = new byte[current.length - 4];
+        System.arraycopy(current, 0, older, 0, 20);
+        System.arraycopy(current, 24, older, 20, current.length - 24);
+        GameStateService.MultiplayerGameState upgraded = GameStateService.MultiplayerGameState.readFrom(
+                new DataInputStream(new ByteArrayInputStream(older)), false);
+        assertEquals(0, upgraded.getReshuffleCount());
+        assertEquals(gameState.getDeckSize(), upgraded.getDeckSize());
+        assertEquals(gameState.getCurrentPlayerName(), upgraded.getCurrentPlayerName());
+    }
+
+    @Test
+    void playCard_shouldRemoveExactlyOneCopy() {
+        gameState.startGame(List.of("alice", "bob"));
+        String player = gameState.getCurrentPlayerName();
+        int top = gameState.getTopCard();
+        int card = Cards.face(Cards.color(top), Cards.value(top) == 5 ? 6 : 5);
+        Hand hand = gameState.getPlayerHand(player);
+        hand.add(card);
+        hand.add(card);
+        int copiesBefore = hand.count(card);
+        int sizeBefore = gameState.getHandSize(player);
+
+        gameState.playCard(player, card, null);
+
+        assertEquals(sizeBefore - 1, gameState.getHandSize(player));
+        assertEquals(copiesBefore - 1, hand.count(card));
+        assertEquals(card, gameState.getTopCard());
+    }
+
+    @Test
+    void playCard_shouldRejectCardNotInHand() {
+        gameState.startGame(List.of("alice", "bob"));
+        String player = gameState.getCurrentPlayerName();
+        while (gameState.getPlayerHand(player).remove(Cards.WILD)) {
+            // drop every Wild the deal gave this player
+        }
+
+        assertThrows(IllegalStateException.class, () -> gameState.playCard(player, Cards.WILD, "red"));
+    }
+
+    @Test
+    void playCard_shouldRejectOutOfTurnPlayer() {
+        gameState.startGame(List.of("alice", "bob"));
+        String other = gameState.getPlayerOrder().get(1);
+
+        assertThrows(IllegalStateException.class, () -> gameState.playCard(other, Cards.WILD, "red"));
+    }
+
+    @Test
+    void canPlayCard_shouldRejectWildDrawFourWhenHoldingCurrentColor() {
+        gameState.startGame(List.of("alice", "bob"));
+        String player = gameState.getCurrentPlayerName();
+        int top = gameState.getTopCard();
+        Hand hand = gameState.getPlayerHand(player);
+        hand.add(Cards.WILD_DRAW_FOUR);
+        hand.add(Cards.face(Cards.color(top), 0));
+
+        assertFalse(gameState.canPlayCard(Cards.WILD_DRAW_FOUR, player));
+        assertTrue(gameState.canPlayCard(Cards.WILD, player));
+    }
+
+    @Test
+    void hasPlayableCard_shouldMatchPerCardLegality() {
+        for (int round = 0; round < 50; round++) {
+            GameStateService.MultiplayerGameState game = new GameStateService.MultiplayerGameState();
+            game.startGame(List.of("alice", "bob"));
+            String player = game.getCurrentPlayerName();
+
+            boolean expected = false;
+            for (int face : game.getPlayerHand(player).toArray()) {
+                expected |= game.canPlayCard(face, player);
+            }
+            assertEquals(expected, game.hasPlayableCard(player));
+        }
+    }
+
+    @Test
+    void legalMoves_shouldMatchCanPlayCardForEveryHeldFace() {
+        for (int round = 0; round < 50; round++) {
+            GameStateService.MultiplayerGameState game = new GameStateService.MultiplayerGameState();
+            game.startGame(List.of("alice", "bob", "carol"));
+            String player = game.getCurrentPlayerName();
+            Hand hand = game.getPlayerHand(player);
+            hand.add(Cards.WILD_DRAW_FOUR);
+
+            long moves = game.legalMoves(player);
+            for (int face = 0; face < Cards.FACE_COUNT; face++) {
+                boolean expected = hand.contains(face) && game.canPlayCard(face, player);
+                assertEquals(expected, (moves & Cards.bit(face)) != 0, Cards.name(face));
+            }
+        }
+    }
+
+    @Test
+    void hasPlayableCard_shouldOnlyAllowStackingDuringDrawStack() {
+        gameState.startGame(List.of("alice", "bob"));
+        String player = gameState.getCurrentPlayerName();
+        int top = gameState.getTopCard();
+        Hand hand = gameState.getPlayerHand(player);
+        int drawTwo = Cards.face(Cards.color(top), Cards.DRAW_TWO);
+        hand.add(drawTwo);
+        gameState.playCard(player, drawTwo, null);
+
+        String next = gameState.getCurrentPlayerName();
+        Hand nextHand = gameState.getPlayerHand(next);
+        for (int color = 0; color < Cards.COLOR_COUNT; color++) {
+            while (nextHand.remove(Cards.face(color, Cards.DRAW_TWO))) {
+                // leave the next player without a Draw Two
+            }
+        }
+        assertFalse(gameState.hasPlayableCard(next));
+
+        nextHand.add(Cards.face(Cards.BLUE, Cards.DRAW_TWO));
+        assertTrue(gameState.hasPlayableCard(next));
+    }
+
+    @Test
+    void hand_shouldTrackColorAndValuePresence() {
+        Hand hand = new Hand();
+        int redSeven = Cards.face(Cards.RED, 7);
+        hand.add(redSeven);
+        hand.add(redSeven);
+
+        assertTrue(hand.hasColor(Cards.RED));
+        assertTrue(hand.hasValue(7));
+        assertTrue(hand.remove(redSeven));
+        assertTrue(hand.hasColor(Cards.RED));
+        assertTrue(hand.remove(redSeven));
+        assertFalse(hand.hasColor(Cards.RED));
+        assertFalse(hand.hasValue(7));
+        assertFalse(hand.remove(redSeven));
+        assertTrue(hand.isEmpty());
+    }
+
+    @Test
+    void execute_shouldRunCommandsOfOneRoomOneAtATimeInOrder() throws InterruptedException {
+        GameStateService service = new GameStateService(4);
+        int commands = 2000;
+        List<Integer> executed = new ArrayList<>();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger overlaps = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(commands);
+
+        for (int i = 0; i < commands; i++) {
+            int id = i;
+            service.execute("ROOM1", () -> {
+                if (running.incrementAndGet() > 1) overlaps.incrementAndGet();
+                executed.add(id);
+                running.decrementAndGet();
+                done.countDown();
+            });
+        }
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        service.shutdown();
+        assertEquals(0, overlaps.get());
+        for (int i = 0; i < commands; i++) {
+            assertEquals(i, executed.get(i));
+        }
+    }
+
+    @Test
+    void retireMailbox_shouldDropTheMailboxAfterQueuedCommandsKeepingRoomOrder() throws InterruptedException {
+        GameStateService service = new GameStateService(4);
+        int commands = 2000;
+        List<Integer> executed = new ArrayList<>();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger overlaps = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(commands);
+
+        for (int i = 0; i < commands; i++) {
+            int id = i;
+            service.execute("ROOM1", () -> {
+                if (running.incrementAndGet() > 1) overlaps.incrementAndGet();
+                executed.add(id);
+                running.decrementAndGet();
+                done.countDown();
+            });
+            if (i % 100 == 0) {
+                service.retireMailbox("ROOM1");
+            }
+        }
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        service.retireMailbox("ROOM1");
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (service.getMailboxCount() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        service.shutdown();
+        assertEquals(0, service.getMailboxCount());
+        assertEquals(0, overlaps.get());
+        for (int i = 0; i < commands; i++) {
+            assertEquals(i, executed.get(i));
+        }
+    }
+
+    @Test
+    void executeIfPresent_shouldNotCreateMailboxes() throws InterruptedException {
+        GameStateService service = new GameStateService(1);
+        assertFalse(service.executeIfPresent("ROOM1", () -> { }));
+        assertEquals(0, service.getMailboxCount());
+
+        CountDownLatch done = new CountDownLatch(1);
+        service.execute("ROOM1", () -> { });
+        assertTrue(service.executeIfPresent("ROOM1", done::countDown));
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        service.shutdown();
+    }
+}
@@ -1,5 +1,6 @@
 package com.group16.uno.service;
 
+import com.group16.uno.config.JwtService;
 import com.group16.uno.model.User;
 import com.group16.uno.model.PasswordResetToken;
 import com.group16.uno.repository.PasswordTokenRepository;
@@ -29,6 +30,9 @@ public class UserServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private JwtService jwtService;
+
     @InjectMocks
     private UserService userService;
 
@@ -124,6 +128,8 @@ public class UserServiceTest {
         userService.updatePassword(user, newPassword);
 
         assertEquals(hashed, user.getPassword());
+        assertNotNull(user.getPasswordChangedAt());
         verify(userRepository).save(user);
+        verify(jwtService).passwordChanged("johndoe", user.getPasswordChangedAt());
     }
 }
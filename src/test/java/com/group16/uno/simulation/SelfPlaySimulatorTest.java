@@ -0,0 +1,32 @@
+package com.group16.uno.simulation;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SelfPlaySimulatorTest {
+
+    @Test
+    void run_shouldFinishGamesWithoutRuleViolations() {
+        for (SelfPlaySimulator.Strategy strategy : SelfPlaySimulator.Strategy.values()) {
+            for (int players = 2; players <= 4; players++) {
+                SimulationResult result = new SelfPlaySimulator(players, strategy).run(2000, 99L);
+
+                assertEquals(2000, result.getGames());
+                assertEquals(0, result.getViolations(), result.toString());
+                assertTrue(result.getAverageTurns() > players, result.toString());
+            }
+        }
+    }
+
+    @Test
+    void run_shouldBeReproducibleFromTheSeed() {
+        SelfPlaySimulator simulator = new SelfPlaySimulator(3, SelfPlaySimulator.Strategy.RANDOM);
+
+        SimulationResult first = simulator.run(3000, 7L);
+        SimulationResult second = simulator.run(3000, 7L);
+
+        assertEquals(first.getTurns(), second.getTurns());
+        assertEquals(first.getReshuffles(), second.getReshuffles());
+    }
+}